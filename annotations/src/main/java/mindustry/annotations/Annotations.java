@@ -35,6 +35,24 @@ public class Annotations{
     @Retention(RetentionPolicy.SOURCE)
     public @interface NoSync{}
 
+    /** Indicates that a field is written in a smaller, possibly lossy form when synced. Saves are not affected. */
+    @Target({ElementType.FIELD})
+    @Retention(RetentionPolicy.SOURCE)
+    public @interface SyncCompact{
+        /** How the field is encoded. */
+        CompactMode value();
+    }
+
+    public enum CompactMode{
+        /** A world coordinate float, rounded to a quarter of a world unit and written as a variable-length int. */
+        position,
+        /** An angle in degrees, written as 16 bits. */
+        angle,
+        /** An int, written with a variable length. Small values of either sign take a single byte. */
+        varint,
+        /** A boolean, packed into a shared byte together with the other compact booleans of the entity. */
+        flag
+    }
 
     /** Indicates that a component field is imported from other components. This means it doesn't actually exist. */
     @Target({ElementType.FIELD})
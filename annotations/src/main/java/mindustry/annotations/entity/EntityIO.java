@@ -122,13 +122,26 @@ public class EntityIO{
         this.method = method;
         this.write = write;
 
+        //compact booleans are packed into bytes that come before all other fields
+        Seq<String> flags = revisions.peek().fields.map(f -> allFields.find(s -> s.name().equals(f.name)))
+            .select(v -> v != null && !v.has(NoSync.class) && compactMode(v) == CompactMode.flag).map(Svar::name);
+
         if(write){
+            for(int i = 0; i < flags.size; i += 8){
+                StringBuilder bits = new StringBuilder();
+                for(int j = i; j < Math.min(i + 8, flags.size); j++){
+                    if(j > i) bits.append(" | ");
+                    bits.append("(this.").append(flags.get(j)).append(" ? ").append(1 << (j - i)).append(" : 0)");
+                }
+                st("write.b($L)", bits);
+            }
+
             //write uses most recent revision
             for(RevisionField field : revisions.peek().fields){
                 Svar var = allFields.find(s -> s.name().equals(field.name));
-                if(var == null || var.has(NoSync.class)) continue;
+                if(var == null || var.has(NoSync.class) || flags.contains(field.name)) continue;
 
-                io(field.type, "this." + field.name, true);
+                syncIo(var, field.type, "this." + field.name, flags);
             }
         }else{
             Revision rev = revisions.peek();
@@ -138,6 +151,10 @@ public class EntityIO{
             st("lastUpdated = $T.millis()", Time.class);
             st("boolean islocal = isLocal()");
 
+            for(int i = 0; i < flags.size; i += 8){
+                st("int FLAGS_$L = read.ub()", i / 8);
+            }
+
             //add code for reading revision
             for(RevisionField field : rev.fields){
                 Svar var = allFields.find(s -> s.name().equals(field.name));
@@ -151,12 +168,12 @@ public class EntityIO{
                     st(field.name + lastSuf + " = this." + field.name);
                 }
 
-                io(field.type, "this." + (sf ? field.name + targetSuf : field.name) + " = ", true);
+                syncIo(var, field.type, "this." + (sf ? field.name + targetSuf : field.name) + " = ", flags);
 
                 if(sl){
                     ncont("else" );
 
-                    io(field.type, "", true);
+                    syncIo(var, field.type, "", flags);
 
                     //just assign the two values so jumping does not occur on de-possession
                     if(sf){
@@ -221,6 +238,41 @@ public class EntityIO{
         econt();
     }
 
+    private @Nullable CompactMode compactMode(Svar var){
+        return var.has(SyncCompact.class) ? var.annotation(SyncCompact.class).value() : null;
+    }
+
+    /** Writes or reads a synced field, using its compact encoding if it has one. */
+    private void syncIo(Svar var, String type, String field, Seq<String> flags) throws Exception{
+        CompactMode mode = compactMode(var);
+        if(mode == null){
+            io(type, field, true);
+            return;
+        }
+
+        String expected = mode == CompactMode.flag ? "boolean" : mode == CompactMode.varint ? "int" : "float";
+        if(!type.equals(expected)){
+            BaseProcessor.err("Compact sync mode '" + mode + "' requires a field of type " + expected + ", but '" + var.name() + "' is of type " + type, var);
+            return;
+        }
+
+        if(mode == CompactMode.flag){
+            //flags are written up front; the discarding branch of local fields has nothing to read
+            if(!write && !field.isEmpty()){
+                int index = flags.indexOf(var.name());
+                st("$L(FLAGS_$L & $L) != 0", field, index / 8, 1 << (index % 8));
+            }
+            return;
+        }
+
+        String suffix = mode == CompactMode.position ? "Position" : mode == CompactMode.angle ? "Angle" : "VarInt";
+        if(write){
+            st("mindustry.io.CompactIO.write$L(write, $L)", suffix, field);
+        }else{
+            st("$Lmindustry.io.CompactIO.read$L(read)", field, suffix);
+        }
+    }
+
     private void io(String type, String field, boolean network) throws Exception{
         type = type.replace("mindustry.gen.", "");
         type = replacements.get(type, type);
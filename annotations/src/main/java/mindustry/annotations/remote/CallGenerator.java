@@ -59,6 +59,10 @@ public class CallGenerator{
             //register packet
             register.addStatement("mindustry.net.Net.registerPacket($L.$L::new)", packageName, ent.packetClassName);
 
+            //outgoing packets are serialized as soon as they are sent, so one instance per thread can be reused for every call
+            callBuilder.addField(FieldSpec.builder(ParameterizedTypeName.get(ClassName.get(ThreadLocal.class), tname(packageName + "." + ent.packetClassName)), poolName(ent), Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer("arc.util.Threads.local($L.$L::new)", packageName, ent.packetClassName).build());
+
             //add fields to the type
             Seq<Svar> params = ent.element.params();
             for(int i = 0; i < params.size; i++){
@@ -159,10 +163,11 @@ public class CallGenerator{
             .addModifiers(Modifier.PUBLIC)
             .addAnnotation(Override.class);
 
-        //make sure data is present, begin reading it if so
-        builder.addStatement("BAIS.setBytes(DATA)");
+        //make sure data is present, begin reading it if so; the reader is thread-local, as pure packets are decoded on network threads
+        builder.addStatement("arc.util.io.Reads READ = reader(DATA)");
 
         Seq<Svar> params = ent.element.params();
+        boolean pure = true;
 
         //go through each parameter
         for(int i = 0; i < params.size; i++){
@@ -188,6 +193,11 @@ public class CallGenerator{
             //capitalized version of type name for reading primitives
             String pname = typeName.equals("boolean") ? "bool" : typeName.charAt(0) + "";
 
+            //anything that isn't plain data may look up game state while reading
+            if(writePlayerSkipCheck || !(BaseProcessor.isPrimitive(typeName) || typeName.equals("java.lang.String") || typeName.equals("byte[]"))){
+                pure = false;
+            }
+
             //write primitives automatically
             if(BaseProcessor.isPrimitive(typeName)){
                 builder.addStatement("$L = READ.$L()", varName, pname);
@@ -209,6 +219,14 @@ public class CallGenerator{
         }
 
         typespec.addMethod(builder.build());
+
+        if(pure){
+            typespec.addMethod(MethodSpec.methodBuilder("isPure")
+                .addModifiers(Modifier.PUBLIC)
+                .addAnnotation(Override.class)
+                .returns(boolean.class)
+                .addStatement("return true").build());
+        }
     }
 
     /** Creates a specific variant for a method entry. */
@@ -283,7 +301,7 @@ public class CallGenerator{
         method.beginControlFlow("if(" + getCheckString(ent.where) + ")");
 
         //add statement to create packet from pool
-        method.addStatement("$1T packet = new $1T()", tname("mindustry.gen." + ent.packetClassName));
+        method.addStatement("$T packet = $L.get()", tname("mindustry.gen." + ent.packetClassName), poolName(ent));
 
         method.addTypeVariables(Seq.with(elem.e.getTypeParameters()).map(BaseProcessor::getTVN));
 
@@ -331,6 +349,16 @@ public class CallGenerator{
         //send the actual packet
         method.addStatement(sendString + "packet, " + (!ent.unreliable) + ")");
 
+        //clear references so that the pooled packet does not keep them alive
+        for(int i = 0; i < params.size; i++){
+            if((!ent.where.isServer) && i == 0) continue;
+
+            Svar var = params.get(i);
+            if(!BaseProcessor.isPrimitive(var.mirror().toString())){
+                method.addStatement("packet.$L = null", var.name());
+            }
+        }
+
 
         //end check for server/client
         method.endControlFlow();
@@ -339,6 +367,10 @@ public class CallGenerator{
         classBuilder.addMethod(method.build());
     }
 
+    private static String poolName(MethodEntry ent){
+        return "pool" + ent.packetClassName;
+    }
+
     private static String getCheckString(Loc loc){
         return
             loc.isClient && loc.isServer ? "mindustry.Vars.net.server() || mindustry.Vars.net.client()" :
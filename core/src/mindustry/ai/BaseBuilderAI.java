@@ -25,7 +25,9 @@ public class BaseBuilderAI{
     private static final Vec2 axis = new Vec2(), rotator = new Vec2();
     private static final int attempts = 6, coreUnitMultiplier = 2;
     private static final float emptyChance = 0.01f;
-    private static final int timerStep = 0, timerSpawn = 1, timerRefreshPath = 2;
+    private static final int timerStep = 0, timerSpawn = 1, timerRefreshPath = 2, timerCandidates = 3;
+    private static final int placeRange = 150;
+    private static final float candidateRefreshInterval = 60f * 20f;
     private static final float placeIntervalMin = 12f, placeIntervalMax = 2f;
     private static final int pathStep = 50;
     private static final Seq<Tile> tmpTiles = new Seq<>();
@@ -43,6 +45,11 @@ public class BaseBuilderAI{
     boolean calculating, startedCalculating;
     int calcCount = 0;
     int totalCalcs = 0;
+    /**
+     * Free ore tiles near a seed position that resource parts may be placed on. Built from the ore index of the {@link BlockIndexer},
+     * which is kept up to date with tile changes. Tiles are removed as they are tried, and the list is rebuilt when it runs out or gets old.
+     */
+    IntSeq candidates = new IntSeq(false, 64);
 
     public BaseBuilderAI(TeamData data){
         this.data = data;
@@ -148,43 +155,85 @@ public class BaseBuilderAI{
         //only schedule when there's something to build.
         if((foundPath || !calculating) && data.plans.isEmpty() && timer.get(timerStep, Mathf.lerp(placeIntervalMin, placeIntervalMax, data.team.rules().buildAiTier))){
 
-            for(int i = 0; i < attempts; i++){
-                int range = 150;
+            if(candidates.isEmpty() || timer.get(timerCandidates, candidateRefreshInterval)){
+                refreshCandidates();
+            }
 
-                Position pos = randomPosition();
+            for(int i = 0; i < attempts; i++){
+                Tile tile;
+                Seq<BasePart> parts;
 
-                //when there are no random positions, do nothing.
-                if(pos == null) return;
+                if(Mathf.chance(emptyChance)){
+                    Position pos = randomPosition();
 
-                Tmp.v1.rnd(Mathf.random(range));
-                int wx = (int)(World.toTile(pos.getX()) + Tmp.v1.x), wy = (int)(World.toTile(pos.getY()) + Tmp.v1.y);
-                Tile tile = world.tiles.getc(wx, wy);
+                    //when there are no random positions, do nothing.
+                    if(pos == null) return;
 
-                //try not to block the spawn point
-                if(spawner.getSpawns().contains(t -> t.within(tile, tilesize * 40f))){
-                    continue;
-                }
-
-                Seq<BasePart> parts = null;
+                    //pick a completely random base part, and place it a random location
+                    //((yes, very intelligent))
+                    Tmp.v1.rnd(Mathf.random(placeRange));
+                    int wx = (int)(World.toTile(pos.getX()) + Tmp.v1.x), wy = (int)(World.toTile(pos.getY()) + Tmp.v1.y);
+                    tile = world.tiles.getc(wx, wy);
+                    parts = Vars.bases.parts;
 
-                //pick a completely random base part, and place it a random location
-                //((yes, very intelligent))
-                if(tile.drop() != null && Vars.bases.forResource(tile.drop()).any()){
+                    if(nearSpawn(tile)) continue;
+                }else{
+                    //resource parts are placed on ore tiles that are known to be free
+                    tile = nextCandidate();
+                    if(tile == null) break;
                     parts = Vars.bases.forResource(tile.drop());
-                }else if(Mathf.chance(emptyChance)){
-                    parts = Vars.bases.parts;
                 }
 
-                if(parts != null){
-                    BasePart part = parts.random();
-                    if(tryPlace(part, tile.x, tile.y)){
-                        break;
-                    }
+                BasePart part = parts.random();
+                if(part != null && tryPlace(part, tile.x, tile.y)){
+                    break;
                 }
             }
         }
     }
 
+    /** Collects free ore tiles that resource parts can be placed on around a random seed position. */
+    private void refreshCandidates(){
+        candidates.clear();
+
+        Position pos = randomPosition();
+        if(pos == null) return;
+
+        for(Item item : content.items()){
+            if(indexer.hasOre(item) && Vars.bases.forResource(item).any()){
+                indexer.findOres(pos.getX(), pos.getY(), placeRange * tilesize, item, candidates);
+            }
+        }
+
+        //these never become valid until the path or spawns change, which also rebuilds the list eventually
+        for(int i = candidates.size - 1; i >= 0; i--){
+            int packed = candidates.items[i];
+            if(path.contains(packed) || nearSpawn(world.tile(packed))){
+                candidates.removeIndex(i);
+            }
+        }
+    }
+
+    /** @return a random candidate tile that is still free, removing it from the candidates. */
+    private @Nullable Tile nextCandidate(){
+        while(!candidates.isEmpty()){
+            int index = Mathf.random(candidates.size - 1), packed = candidates.items[index];
+            candidates.removeIndex(index);
+
+            //the list may be outdated, so check the tile again
+            Tile tile = world.tile(packed);
+            if(tile != null && tile.block() == Blocks.air && tile.drop() != null && !path.contains(packed) && Vars.bases.forResource(tile.drop()).any()){
+                return tile;
+            }
+        }
+        return null;
+    }
+
+    /** @return whether placing near this tile may block the spawn point. */
+    private boolean nearSpawn(Tile tile){
+        return spawner.getSpawns().contains(t -> t.within(tile, tilesize * 40f));
+    }
+
     /** @return a random position from which to seed building. */
     private Position randomPosition(){
         if(data.hasCore()){
@@ -37,6 +37,10 @@ public class BlockIndexer{
     private Seq<Team> activeTeams = new Seq<>(Team.class);
     /** Maps teams to a map of flagged tiles by flag. */
     private Seq<Building>[][] flagMap = new Seq[Team.all.length][BlockFlag.all.length];
+    /** Maps teams to a spatial grid of flagged tiles by flag. Grids are created lazily. */
+    private BuildingGrid[][] flagGrids = new BuildingGrid[Team.all.length][BlockFlag.all.length];
+    /** Spatial grid of damaged buildings by team. Grids are created lazily. */
+    private BuildingGrid[] damagedGrids = new BuildingGrid[Team.all.length];
     /** Counts whether a certain floor is present in the world upon load. */
     private boolean[] blocksPresent;
     /** Array used for returning and reusing. */
@@ -56,6 +60,8 @@ public class BlockIndexer{
         Events.on(WorldLoadEvent.class, event -> {
             damagedTiles = new Seq[Team.all.length];
             flagMap = new Seq[Team.all.length][BlockFlag.all.length];
+            flagGrids = new BuildingGrid[Team.all.length][BlockFlag.all.length];
+            damagedGrids = new BuildingGrid[Team.all.length];
             activeTeams = new Seq<>(Team.class);
 
             clearFlags();
@@ -110,6 +116,9 @@ public class BlockIndexer{
             if(flags.size > 0){
                 for(BlockFlag flag : flags.array){
                     getFlagged(team)[flag.ordinal()].remove(build);
+
+                    var grid = flagGrids[team.id][flag.ordinal()];
+                    if(grid != null) grid.remove(build);
                 }
             }
 
@@ -131,8 +140,9 @@ public class BlockIndexer{
             }
 
             //unregister damaged buildings
-            if(build.wasDamaged && damagedTiles[team.id] != null){
-                damagedTiles[team.id].remove(build);
+            if(build.wasDamaged){
+                if(damagedTiles[team.id] != null) damagedTiles[team.id].remove(build);
+                if(damagedGrids[team.id] != null) damagedGrids[team.id].remove(build);
             }
 
             //is no longer registered
@@ -185,6 +195,10 @@ public class BlockIndexer{
         }
     }
 
+    private BuildingGrid newGrid(){
+        return new BuildingGrid(world.width(), world.height());
+    }
+
     private Seq<Building>[] getFlagged(Team team){
         return flagMap[team.id];
     }
@@ -211,9 +225,68 @@ public class BlockIndexer{
         return flagMap[team.id][type.ordinal()];
     }
 
+    /** @return the spatial grid of allied blocks with a flag. */
+    public BuildingGrid getFlagGrid(Team team, BlockFlag type){
+        var grids = flagGrids[team.id];
+        if(grids[type.ordinal()] == null){
+            grids[type.ordinal()] = newGrid();
+        }
+        return grids[type.ordinal()];
+    }
+
+    /** @return the amount of allied blocks with a flag that are within range of a position. */
+    public int countFlagged(Team team, BlockFlag type, float x, float y, float range){
+        var grid = flagGrids[team.id][type.ordinal()];
+        return grid == null ? 0 : grid.count(x, y, range);
+    }
+
     @Nullable
     public Building findClosestFlag(float x, float y, Team team, BlockFlag flag){
-        return Geometry.findClosest(x, y, getFlagged(team, flag));
+        var grid = flagGrids[team.id][flag.ordinal()];
+        return grid == null ? null : grid.findClosest(x, y);
+    }
+
+    @Nullable
+    public Building findClosestFlag(float x, float y, Team team, BlockFlag flag, float range, @Nullable Boolf<Building> pred){
+        var grid = flagGrids[team.id][flag.ordinal()];
+        return grid == null ? null : grid.findClosest(x, y, range, pred);
+    }
+
+    /** @return the closest enemy block with a flag. */
+    @Nullable
+    public Building findClosestEnemyFlag(float x, float y, Team team, BlockFlag flag){
+        Building result = null;
+        float dst = Float.MAX_VALUE;
+
+        for(int i = 0; i < activeTeams.size; i++){
+            Team enemy = activeTeams.items[i];
+            if(enemy == team || (enemy == Team.derelict && !state.rules.coreCapture)) continue;
+
+            var grid = flagGrids[enemy.id][flag.ordinal()];
+            if(grid == null) continue;
+
+            //only buildings closer than the current result are of interest
+            var candidate = grid.findClosest(x, y, result == null ? Float.MAX_VALUE : Mathf.sqrt(dst), null);
+            if(candidate != null){
+                result = candidate;
+                dst = candidate.dst2(x, y);
+            }
+        }
+
+        return result;
+    }
+
+    /** @return the closest damaged building of a team. */
+    @Nullable
+    public Building findClosestDamaged(Team team, float x, float y){
+        return findClosestDamaged(team, x, y, Float.MAX_VALUE, null);
+    }
+
+    /** @return the closest damaged building of a team within range that matches the predicate. */
+    @Nullable
+    public Building findClosestDamaged(Team team, float x, float y, float range, @Nullable Boolf<Building> pred){
+        var grid = damagedGrids[team.id];
+        return grid == null ? null : grid.findClosest(x, y, range, b -> b.damaged() && (pred == null || pred.get(b)));
     }
 
     public boolean eachBlock(Teamc team, float range, Boolf<Building> pred, Cons<Building> cons){
@@ -315,12 +388,18 @@ public class BlockIndexer{
                 damagedTiles[build.team.id] = new Seq<>(false);
             }
 
+            if(damagedGrids[build.team.id] == null){
+                damagedGrids[build.team.id] = newGrid();
+            }
+
             if(damaged){
                 //is now damaged, add to array
                 damagedTiles[build.team.id].add(build);
+                damagedGrids[build.team.id].add(build);
             }else{
                 //no longer damaged, remove
                 damagedTiles[build.team.id].remove(build);
+                damagedGrids[build.team.id].remove(build);
             }
 
             build.wasDamaged = damaged;
@@ -432,6 +511,29 @@ public class BlockIndexer{
         return null;
     }
 
+    /** Adds the positions of all ore tiles of this item with nothing built on them, that are within range of a position. */
+    public void findOres(float wx, float wy, float range, Item item, IntSeq out){
+        if(ores == null || ores[item.id] == null) return;
+
+        float range2 = range * range;
+        int minqx = Math.max(World.toTile(wx - range) / quadrantSize, 0), minqy = Math.max(World.toTile(wy - range) / quadrantSize, 0);
+        int maxqx = Math.min(World.toTile(wx + range) / quadrantSize, quadWidth - 1), maxqy = Math.min(World.toTile(wy + range) / quadrantSize, quadHeight - 1);
+
+        for(int qx = minqx; qx <= maxqx; qx++){
+            for(int qy = minqy; qy <= maxqy; qy++){
+                var arr = ores[item.id][qx][qy];
+                if(arr == null) continue;
+
+                for(int i = 0; i < arr.size; i++){
+                    int pos = arr.items[i];
+                    if(Mathf.dst2(Point2.x(pos) * tilesize, Point2.y(pos) * tilesize, wx, wy) <= range2){
+                        out.add(pos);
+                    }
+                }
+            }
+        }
+    }
+
     /** Find the closest ore block relative to a position. */
     public Tile findClosestOre(Unit unit, Item item){
         return findClosestOre(unit.x, unit.y, item);
@@ -448,6 +550,7 @@ public class BlockIndexer{
 
                 for(BlockFlag flag : tile.block().flags.array){
                     map[flag.ordinal()].add(tile.build);
+                    getFlagGrid(team, flag).add(tile.build);
                 }
             }
 
@@ -0,0 +1,216 @@
+package mindustry.ai;
+
+import arc.func.*;
+import arc.math.*;
+import arc.struct.*;
+import arc.util.*;
+import mindustry.core.*;
+import mindustry.gen.*;
+
+import static mindustry.Vars.*;
+
+/**
+ * A two-level grid of buildings used by the {@link BlockIndexer} for range and nearest queries.
+ * Buildings are bucketed into cells; cells are grouped into regions that keep a count of their buildings,
+ * so that queries can skip empty parts of the map without looking at individual cells.
+ */
+public class BuildingGrid{
+    /** Size of one cell, in tiles. */
+    public static final int cellSize = 16;
+    /** Size of one region, in cells. */
+    public static final int regionSize = 8;
+
+    private static final float cellWorldSize = cellSize * tilesize, regionWorldSize = cellWorldSize * regionSize;
+
+    private final int width, height, regionWidth, regionHeight;
+    private final Seq<Building>[] cells;
+    private final int[] regionCounts;
+    private int total;
+
+    @SuppressWarnings("unchecked")
+    public BuildingGrid(int tileWidth, int tileHeight){
+        width = Math.max(Mathf.ceil(tileWidth / (float)cellSize), 1);
+        height = Math.max(Mathf.ceil(tileHeight / (float)cellSize), 1);
+        regionWidth = Mathf.ceil(width / (float)regionSize);
+        regionHeight = Mathf.ceil(height / (float)regionSize);
+        cells = new Seq[width * height];
+        regionCounts = new int[regionWidth * regionHeight];
+    }
+
+    public void add(Building build){
+        int cx = cellX(build.tileX()), cy = cellY(build.tileY());
+        int index = cx + cy * width;
+        if(cells[index] == null){
+            cells[index] = new Seq<>(false, 4, Building.class);
+        }
+        cells[index].add(build);
+        regionCounts[cx / regionSize + cy / regionSize * regionWidth] ++;
+        total ++;
+    }
+
+    /** @return whether the building was present in this grid. */
+    public boolean remove(Building build){
+        int cx = cellX(build.tileX()), cy = cellY(build.tileY());
+        var cell = cells[cx + cy * width];
+        if(cell != null && cell.remove(build, true)){
+            regionCounts[cx / regionSize + cy / regionSize * regionWidth] --;
+            total --;
+            return true;
+        }
+        return false;
+    }
+
+    /** @return the total amount of buildings in this grid. */
+    public int size(){
+        return total;
+    }
+
+    public boolean isEmpty(){
+        return total == 0;
+    }
+
+    /** @return the amount of buildings whose centers are within range of this position. */
+    public int count(float wx, float wy, float range){
+        if(total == 0) return 0;
+
+        int result = 0;
+        float range2 = range * range;
+        int minx = cellX(World.toTile(wx - range)), miny = cellY(World.toTile(wy - range));
+        int maxx = cellX(World.toTile(wx + range)), maxy = cellY(World.toTile(wy + range));
+
+        for(int ry = miny / regionSize; ry <= maxy / regionSize; ry++){
+            for(int rx = minx / regionSize; rx <= maxx / regionSize; rx++){
+                int regionCount = regionCounts[rx + ry * regionWidth];
+                if(regionCount == 0) continue;
+
+                //the whole region is inside the range, so its cells do not need to be visited
+                if(maxDst2(rx * regionWorldSize, ry * regionWorldSize, regionWorldSize, wx, wy) < range2){
+                    result += regionCount;
+                    continue;
+                }
+
+                int maxcx = Math.min((rx + 1) * regionSize - 1, maxx), maxcy = Math.min((ry + 1) * regionSize - 1, maxy);
+                for(int cy = Math.max(ry * regionSize, miny); cy <= maxcy; cy++){
+                    for(int cx = Math.max(rx * regionSize, minx); cx <= maxcx; cx++){
+                        var cell = cells[cx + cy * width];
+                        if(cell == null || cell.isEmpty()) continue;
+
+                        //the whole cell is inside the range, so there is no need to check each building
+                        if(maxDst2(cx * cellWorldSize, cy * cellWorldSize, cellWorldSize, wx, wy) < range2){
+                            result += cell.size;
+                            continue;
+                        }
+
+                        var items = cell.items;
+                        for(int i = 0; i < cell.size; i++){
+                            if(items[i].within(wx, wy, range)) result ++;
+                        }
+                    }
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /** Calls the consumer for every building whose center is within range of this position. */
+    public void intersect(float wx, float wy, float range, Cons<Building> cons){
+        if(total == 0) return;
+
+        float range2 = range * range;
+        int minx = cellX(World.toTile(wx - range)), miny = cellY(World.toTile(wy - range));
+        int maxx = cellX(World.toTile(wx + range)), maxy = cellY(World.toTile(wy + range));
+
+        for(int cy = miny; cy <= maxy; cy++){
+            for(int cx = minx; cx <= maxx; cx++){
+                if(regionCounts[cx / regionSize + cy / regionSize * regionWidth] == 0) continue;
+
+                var cell = cells[cx + cy * width];
+                if(cell == null || cell.isEmpty() || cellMinDst2(cx, cy, wx, wy) > range2) continue;
+
+                var items = cell.items;
+                for(int i = 0; i < cell.size; i++){
+                    if(items[i].within(wx, wy, range)) cons.get(items[i]);
+                }
+            }
+        }
+    }
+
+    /** @return the closest building to this position. */
+    public @Nullable Building findClosest(float wx, float wy){
+        return findClosest(wx, wy, Float.MAX_VALUE, null);
+    }
+
+    /**
+     * Searches outwards from the region containing this position, skipping regions and cells that are empty
+     * or further away than the best building found so far.
+     * @return the closest building within range that matches the predicate.
+     */
+    public @Nullable Building findClosest(float wx, float wy, float range, @Nullable Boolf<Building> pred){
+        if(total == 0) return null;
+
+        Building result = null;
+        float best = range * range;
+        int ox = cellX(World.toTile(wx)) / regionSize, oy = cellY(World.toTile(wy)) / regionSize;
+        int rings = Math.max(regionWidth, regionHeight);
+
+        for(int r = 0; r <= rings; r++){
+            //every region in this ring is at least (r - 1) regions away from the position; a tile of margin accounts for building offsets
+            float ringDst = Math.max((r - 1) * regionWorldSize - tilesize, 0f);
+            if(ringDst * ringDst > best) break;
+
+            for(int dy = -r; dy <= r; dy++){
+                //only the edges of the ring need to be checked
+                int step = (dy == -r || dy == r) ? 1 : Math.max(r * 2, 1);
+                for(int dx = -r; dx <= r; dx += step){
+                    int rx = ox + dx, ry = oy + dy;
+                    if(rx < 0 || ry < 0 || rx >= regionWidth || ry >= regionHeight || regionCounts[rx + ry * regionWidth] == 0) continue;
+
+                    int maxcx = Math.min((rx + 1) * regionSize, width), maxcy = Math.min((ry + 1) * regionSize, height);
+                    for(int cy = ry * regionSize; cy < maxcy; cy++){
+                        for(int cx = rx * regionSize; cx < maxcx; cx++){
+                            var cell = cells[cx + cy * width];
+                            if(cell == null || cell.isEmpty() || cellMinDst2(cx, cy, wx, wy) > best) continue;
+
+                            var items = cell.items;
+                            for(int i = 0; i < cell.size; i++){
+                                var build = items[i];
+                                float dst = build.dst2(wx, wy);
+                                if(dst < best && (pred == null || pred.get(build))){
+                                    best = dst;
+                                    result = build;
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        return result;
+    }
+
+    private int cellX(int tx){
+        return Mathf.clamp(tx / cellSize, 0, width - 1);
+    }
+
+    private int cellY(int ty){
+        return Mathf.clamp(ty / cellSize, 0, height - 1);
+    }
+
+    /** @return the minimum squared distance from the position to any building center in the cell. */
+    private float cellMinDst2(int cx, int cy, float wx, float wy){
+        float minx = cx * cellWorldSize - tilesize, miny = cy * cellWorldSize - tilesize;
+        float dx = Math.max(Math.max(minx - wx, wx - (minx + cellWorldSize + tilesize * 2f)), 0f);
+        float dy = Math.max(Math.max(miny - wy, wy - (miny + cellWorldSize + tilesize * 2f)), 0f);
+        return dx*dx + dy*dy;
+    }
+
+    /** @return the maximum squared distance from the position to any building center in the square area starting at this world position. */
+    private float maxDst2(float x, float y, float size, float wx, float wy){
+        float minx = x - tilesize, miny = y - tilesize;
+        float dx = Math.max(Math.abs(wx - minx), Math.abs(wx - (minx + size + tilesize * 2f)));
+        float dy = Math.max(Math.abs(wy - miny), Math.abs(wy - (miny + size + tilesize * 2f)));
+        return dx*dx + dy*dy;
+    }
+}
@@ -0,0 +1,94 @@
+package mindustry.ai;
+
+import arc.func.*;
+import arc.math.*;
+import arc.math.geom.*;
+import arc.struct.*;
+import mindustry.ai.types.*;
+import mindustry.gen.*;
+
+import java.util.*;
+
+import static mindustry.Vars.*;
+
+/**
+ * A spatial hash of units that are moving to a commanded position, shared by all {@link CommandAI} instances.
+ * It is rebuilt at most once per update, the first time it is queried, so that avoidance checks only look at nearby commanded units
+ * instead of searching through every unit on the map.
+ */
+public class CommandUnitGrid{
+    /** Size of one cell, in tiles. */
+    public static final int cellSize = 4;
+    /** Extra search distance, as units keep moving after the grid is built. */
+    private static final float slack = 8f;
+    private static final float cellWorldSize = cellSize * tilesize;
+    private static final Rect rect = new Rect(), hitbox = new Rect();
+
+    private final Seq<Unit> units = new Seq<>(false, 64, Unit.class);
+    private int[] heads = {}, next = {};
+    private int width, height;
+    private float maxHitSize;
+    private long builtUpdate = -1;
+
+    /** @return whether any commanded unit with a hitbox overlapping this rectangle matches the predicate. */
+    public boolean any(float x, float y, float width, float height, Boolf<Unit> pred){
+        if(builtUpdate != state.updateId){
+            rebuild();
+        }
+
+        if(units.isEmpty()) return false;
+
+        float margin = maxHitSize / 2f + slack;
+        int minx = Math.max(cell(x - margin), 0), miny = Math.max(cell(y - margin), 0);
+        int maxx = Math.min(cell(x + width + margin), this.width - 1), maxy = Math.min(cell(y + height + margin), this.height - 1);
+        rect.set(x, y, width, height);
+
+        for(int cy = miny; cy <= maxy; cy++){
+            for(int cx = minx; cx <= maxx; cx++){
+                for(int i = heads[cx + cy * this.width]; i != -1; i = next[i]){
+                    Unit unit = units.items[i];
+                    if(hitbox.set(unit.x - unit.hitSize/2f, unit.y - unit.hitSize/2f, unit.hitSize, unit.hitSize).overlaps(rect) && pred.get(unit)){
+                        return true;
+                    }
+                }
+            }
+        }
+
+        return false;
+    }
+
+    void rebuild(){
+        builtUpdate = state.updateId;
+        units.clear();
+        maxHitSize = 0f;
+
+        for(Unit unit : Groups.unit){
+            if(unit.controller() instanceof CommandAI ai && ai.targetPos != null){
+                units.add(unit);
+                maxHitSize = Math.max(maxHitSize, unit.hitSize);
+            }
+        }
+
+        width = Math.max(Mathf.ceil(world.width() / (float)cellSize), 1);
+        height = Math.max(Mathf.ceil(world.height() / (float)cellSize), 1);
+        if(heads.length != width * height){
+            heads = new int[width * height];
+        }
+        Arrays.fill(heads, -1);
+        if(next.length < units.size){
+            next = new int[Math.max(units.size, next.length * 2)];
+        }
+
+        //each cell is a linked list of unit indices
+        for(int i = 0; i < units.size; i++){
+            Unit unit = units.items[i];
+            int index = Mathf.clamp(cell(unit.x), 0, width - 1) + Mathf.clamp(cell(unit.y), 0, height - 1) * width;
+            next[i] = heads[index];
+            heads[index] = i;
+        }
+    }
+
+    private static int cell(float world){
+        return (int)Math.floor(world / cellWorldSize);
+    }
+}
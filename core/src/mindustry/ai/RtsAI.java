@@ -18,8 +18,6 @@ import mindustry.graphics.*;
 import mindustry.logic.*;
 import mindustry.ui.*;
 import mindustry.world.*;
-import mindustry.world.blocks.defense.turrets.BaseTurret.*;
-import mindustry.world.blocks.defense.turrets.*;
 import mindustry.world.blocks.storage.*;
 import mindustry.world.blocks.storage.CoreBlock.*;
 import mindustry.world.meta.*;
@@ -41,6 +39,7 @@ public class RtsAI{
     final TeamData data;
     final ObjectSet<Building> damagedSet = new ObjectSet<>();
     final Seq<Building> damaged = new Seq<>(false);
+    final ThreatMap threats;
 
     //must be static, as this class can get instantiated many times; event listeners are hard to clean up
     static{
@@ -56,6 +55,7 @@ public class RtsAI{
 
     public RtsAI(TeamData data){
         this.data = data;
+        this.threats = new ThreatMap(data.team);
         timer.reset(0, Mathf.random(60f * 2f));
 
         //TODO remove: debugging!
@@ -80,6 +80,7 @@ public class RtsAI{
     public void update(){
 
         if(timer.get(timeUpdate, 60f * 2f)){
+            threats.update();
             assignSquads();
             checkBuilding();
         }
@@ -313,17 +314,12 @@ public class RtsAI{
         return result;
     }
 
-    //TODO extremely slow especially with many squads.
     float estimateStats(float fromX, float fromY, float x, float y, float selfDps, float selfHealth, boolean air){
-        float[] health = {0f}, dps = {0f};
-        float extraRadius = 50f;
+        float extraRadius = ThreatMap.extraRadius;
 
-        for(var turret : Vars.indexer.getEnemy(data.team, BlockFlag.turret)){
-            if(turret instanceof BaseTurretBuild t && turret.block instanceof Turret tb && ((tb.targetAir && air) || (tb.targetGround && !air)) && Intersector.distanceSegmentPoint(fromX, fromY,  x, y, t.x, t.y) <= t.range() + extraRadius){
-                health[0] += t.health;
-                dps[0] += t.estimateDps();
-            }
-        }
+        //turrets do not move, so only the ones whose coverage is stored along the path are checked
+        threats.sample(fromX, fromY, x, y, air, Tmp.v3);
+        float[] health = {Tmp.v3.x}, dps = {Tmp.v3.y};
 
         Tmp.r1.set(fromX, fromY, x - fromX, y - fromY).normalize().grow(140f * 2f);
 
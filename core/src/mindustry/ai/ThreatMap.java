@@ -0,0 +1,164 @@
+package mindustry.ai;
+
+import arc.*;
+import arc.math.*;
+import arc.math.geom.*;
+import arc.struct.*;
+import arc.util.*;
+import mindustry.game.EventType.*;
+import mindustry.game.*;
+import mindustry.world.blocks.defense.turrets.BaseTurret.*;
+import mindustry.world.blocks.defense.turrets.*;
+import mindustry.world.meta.*;
+
+import java.util.*;
+
+import static mindustry.Vars.*;
+
+/**
+ * A coarse grid of the turret defenses of a team's enemies, used by the {@link RtsAI} to estimate how dangerous a path is.
+ * Each cell holds the enemy turrets that may be able to reach it, so that only those need to be checked against a path.
+ * The grid is rebuilt when turrets are placed or removed anywhere, and periodically to account for turrets running out of ammo.
+ */
+public class ThreatMap{
+    /** Size of one cell, in tiles. */
+    public static final int cellSize = 8;
+    /** Added to turret range, as units are assumed to come that close when passing by. */
+    public static final float extraRadius = 50f;
+
+    private static final float cellWorldSize = cellSize * tilesize, refreshInterval = 60f * 10f;
+    /** Incremented when any turret is placed or removed. */
+    private static int turretVersion;
+
+    static{
+        Events.on(TileChangeEvent.class, e -> {
+            if(e.tile.build != null && e.tile.isCenter() && e.tile.block().flags.contains(BlockFlag.turret)) turretVersion ++;
+        });
+
+        Events.on(TilePreChangeEvent.class, e -> {
+            if(e.tile.build != null && e.tile.isCenter() && e.tile.block().flags.contains(BlockFlag.turret)) turretVersion ++;
+        });
+
+        Events.on(WorldLoadEvent.class, e -> turretVersion ++);
+    }
+
+    private final Team team;
+    private final Seq<BaseTurretBuild> turrets = new Seq<>(BaseTurretBuild.class);
+    private int width, height, version = -1, sampleId;
+    private float lastBuilt;
+    /** Turrets of cell i are the indices in cellTurrets from cellStart[i] until cellStart[i + 1]. */
+    private int[] cellStart, cellTurrets = {}, cellFill, seen = {};
+
+    public ThreatMap(Team team){
+        this.team = team;
+    }
+
+    /** Rebuilds the grid if turrets have changed, or if it has not been rebuilt for a while. */
+    public void update(){
+        if(version != turretVersion || Time.time - lastBuilt > refreshInterval || Time.time < lastBuilt){
+            rebuild();
+        }
+    }
+
+    public void rebuild(){
+        version = turretVersion;
+        lastBuilt = Time.time;
+
+        width = Math.max(Mathf.ceil(world.width() / (float)cellSize), 1);
+        height = Math.max(Mathf.ceil(world.height() / (float)cellSize), 1);
+        int cells = width * height;
+        if(cellStart == null || cellStart.length != cells + 1){
+            cellStart = new int[cells + 1];
+            cellFill = new int[cells];
+        }else{
+            Arrays.fill(cellStart, 0);
+        }
+
+        turrets.clear();
+        for(var build : indexer.getEnemy(team, BlockFlag.turret)){
+            if(build instanceof BaseTurretBuild t && build.block instanceof Turret tb && (tb.targetAir || tb.targetGround)){
+                turrets.add(t);
+            }
+        }
+
+        if(seen.length < turrets.size){
+            seen = new int[turrets.size];
+            sampleId = 0;
+        }
+
+        //a path only visits cells at points half a cell apart, so the closest point of the path to a turret can be up to about a cell away from the center of a visited cell
+        float margin = extraRadius + cellWorldSize;
+
+        //first count the turrets of each cell, then put them in one array
+        for(int pass = 0; pass < 2; pass++){
+            for(int i = 0; i < turrets.size; i++){
+                var t = turrets.items[i];
+                float range = t.range() + margin;
+                int minx = Math.max(cell(t.x - range), 0), miny = Math.max(cell(t.y - range), 0);
+                int maxx = Math.min(cell(t.x + range), width - 1), maxy = Math.min(cell(t.y + range), height - 1);
+
+                for(int cy = miny; cy <= maxy; cy++){
+                    for(int cx = minx; cx <= maxx; cx++){
+                        if(!Mathf.within((cx + 0.5f) * cellWorldSize, (cy + 0.5f) * cellWorldSize, t.x, t.y, range)) continue;
+
+                        int index = cx + cy * width;
+                        if(pass == 0){
+                            cellStart[index + 1] ++;
+                        }else{
+                            cellTurrets[cellFill[index] ++] = i;
+                        }
+                    }
+                }
+            }
+
+            if(pass == 0){
+                for(int i = 0; i < cells; i++){
+                    cellStart[i + 1] += cellStart[i];
+                }
+                System.arraycopy(cellStart, 0, cellFill, 0, cells);
+                if(cellTurrets.length < cellStart[cells]){
+                    cellTurrets = new int[cellStart[cells]];
+                }
+            }
+        }
+    }
+
+    /**
+     * Sums up the enemy turrets that can reach a path. Every turret is only counted once.
+     * @param out set to the total health (x) and DPS (y) of the turrets that can target this kind of unit anywhere between the two positions.
+     */
+    public Vec2 sample(float fromX, float fromY, float x, float y, boolean air, Vec2 out){
+        out.setZero();
+        if(cellStart == null) return out;
+
+        int id = ++sampleId;
+        float len = Mathf.dst(fromX, fromY, x, y);
+        int steps = Math.max(Mathf.ceil(len / (cellWorldSize / 2f)), 1);
+
+        for(int i = 0; i <= steps; i++){
+            float px = Mathf.lerp(fromX, x, i / (float)steps), py = Mathf.lerp(fromY, y, i / (float)steps);
+            int cx = cell(px), cy = cell(py);
+            if(cx < 0 || cy < 0 || cx >= width || cy >= height) continue;
+
+            int index = cx + cy * width;
+            for(int j = cellStart[index]; j < cellStart[index + 1]; j++){
+                int ti = cellTurrets[j];
+                if(seen[ti] == id) continue;
+                seen[ti] = id;
+
+                var t = turrets.items[ti];
+                var tb = (Turret)t.block;
+                if(t.isValid() && (air ? tb.targetAir : tb.targetGround) && Intersector.distanceSegmentPoint(fromX, fromY, x, y, t.x, t.y) <= t.range() + extraRadius){
+                    out.x += t.health;
+                    out.y += t.estimateDps();
+                }
+            }
+        }
+
+        return out;
+    }
+
+    private static int cell(float world){
+        return (int)Math.floor(world / cellWorldSize);
+    }
+}
@@ -20,6 +20,13 @@ import static mindustry.Vars.*;
 
 public class WaveSpawner{
     private static final float margin = 0f, coreMargin = tilesize * 2f, maxSteps = 30;
+    /** Units of the next wave are created ahead of time once the wave timer drops below this. */
+    private static final float prepareTime = 60f * 3f;
+    /** Maximum amount of units created ahead of time per tick. */
+    private static final int preparePerTick = 20;
+
+    /** Maximum amount of wave units added to the world per tick. The rest are added on the following ticks, in order. */
+    public static int spawnsPerTick = 25;
 
     private int tmpCount;
     private Seq<Tile> spawns = new Seq<>();
@@ -27,8 +34,18 @@ public class WaveSpawner{
     private boolean any = false;
     private Tile firstSpawn = null;
 
+    /** Units waiting to be added to the world, with their positions already set. */
+    private final Queue<Unit> spawnQueue = new Queue<>();
+    /** Units created ahead of time for the next wave, for each spawn group in order. */
+    private final Seq<Seq<Unit>> prepared = new Seq<>();
+    private final IntSeq prepareTargets = new IntSeq();
+    private int preparedWave = -1, prepareGroup;
+    private @Nullable Seq<SpawnGroup> preparedGroups;
+
     public WaveSpawner(){
         Events.on(WorldLoadEvent.class, e -> reset());
+        //queued units are not in the world yet, so add all of them before saving, or they would be lost
+        Events.on(SaveWriteEvent.class, e -> spawnAllQueued());
     }
 
     @Nullable
@@ -62,19 +79,20 @@ public class WaveSpawner{
             }
         });
 
-        for(SpawnGroup group : state.rules.spawns){
+        for(int g = 0; g < state.rules.spawns.size; g++){
+            SpawnGroup group = state.rules.spawns.get(g);
             if(group.type == null) continue;
 
-            int spawned = group.getSpawned(state.wave - 1);
+            int spawned = group.getSpawned(state.wave - 1), groupIndex = g;
 
             if(group.type.flying){
                 float spread = margin / 1.5f;
 
                 eachFlyerSpawn(group.spawn, (spawnX, spawnY) -> {
                     for(int i = 0; i < spawned; i++){
-                        Unit unit = group.createUnit(state.rules.waveTeam, state.wave - 1);
+                        Unit unit = obtain(groupIndex, group);
                         unit.set(spawnX + Mathf.range(spread), spawnY + Mathf.range(spread));
-                        spawnEffect(unit);
+                        spawnQueue.addLast(unit);
                     }
                 });
             }else{
@@ -85,17 +103,89 @@ public class WaveSpawner{
                     for(int i = 0; i < spawned; i++){
                         Tmp.v1.rnd(spread);
 
-                        Unit unit = group.createUnit(state.rules.waveTeam, state.wave - 1);
+                        Unit unit = obtain(groupIndex, group);
                         unit.set(spawnX + Tmp.v1.x, spawnY + Tmp.v1.y);
-                        spawnEffect(unit);
+                        spawnQueue.addLast(unit);
                     }
                 });
             }
         }
 
+        clearPrepared();
+
         Time.run(121f, () -> spawning = false);
     }
 
+    /** Adds queued wave units to the world, and creates units for the next wave ahead of time. Called every tick. */
+    public void update(){
+        if(net.client()) return;
+
+        spawnQueued();
+
+        if(state.rules.waves && state.rules.waveTimer && state.wavetime <= prepareTime){
+            prepare();
+        }
+    }
+
+    private void spawnQueued(){
+        for(int i = 0; i < spawnsPerTick && !spawnQueue.isEmpty(); i++){
+            spawnEffect(spawnQueue.removeFirst());
+        }
+    }
+
+    private void spawnAllQueued(){
+        while(!spawnQueue.isEmpty()){
+            spawnEffect(spawnQueue.removeFirst());
+        }
+    }
+
+    /** Creates some of the units of the next wave, so that they do not all have to be created in the tick the wave spawns. */
+    private void prepare(){
+        if(preparedWave != state.wave || preparedGroups != state.rules.spawns){
+            clearPrepared();
+            preparedWave = state.wave;
+            preparedGroups = state.rules.spawns;
+
+            int groundSpawns = countGroundSpawns(), flyerSpawns = countFlyerSpawns();
+            for(SpawnGroup group : state.rules.spawns){
+                int spawns = group.spawn != -1 ? 1 : group.type != null && group.type.flying ? flyerSpawns : groundSpawns;
+                prepareTargets.add(group.type == null ? 0 : group.getSpawned(state.wave - 1) * spawns);
+                prepared.add(new Seq<>());
+            }
+        }
+
+        int budget = preparePerTick;
+        while(budget > 0 && prepareGroup < prepared.size){
+            if(prepared.get(prepareGroup).size >= prepareTargets.get(prepareGroup)){
+                prepareGroup ++;
+                continue;
+            }
+
+            prepared.get(prepareGroup).add(state.rules.spawns.get(prepareGroup).createUnit(state.rules.waveTeam, state.wave - 1));
+            budget --;
+        }
+    }
+
+    /** @return a unit created ahead of time for this group, or a new one if there are none left. */
+    private Unit obtain(int groupIndex, SpawnGroup group){
+        if(preparedWave == state.wave && preparedGroups == state.rules.spawns && groupIndex < prepared.size){
+            var units = prepared.get(groupIndex);
+            if(units.any() && units.peek().team == state.rules.waveTeam && units.peek().type == group.type){
+                return units.pop();
+            }
+        }
+
+        return group.createUnit(state.rules.waveTeam, state.wave - 1);
+    }
+
+    private void clearPrepared(){
+        prepared.clear();
+        prepareTargets.clear();
+        prepareGroup = 0;
+        preparedWave = -1;
+        preparedGroups = null;
+    }
+
     public void doShockwave(float x, float y){
         Fx.spawnShockwave.at(x, y, state.rules.dropZoneRadius);
         Damage.damage(state.rules.waveTeam, x, y, state.rules.dropZoneRadius, 99999999f, true);
@@ -191,12 +281,14 @@ public class WaveSpawner{
     }
 
     public boolean isSpawning(){
-        return spawning && !net.client();
+        return (spawning || !spawnQueue.isEmpty()) && !net.client();
     }
 
     public void reset(){
         spawning = false;
         spawns.clear();
+        spawnQueue.clear();
+        clearPrepared();
 
         for(Tile tile : world.tiles){
             if(tile.overlay() == Blocks.spawn){
@@ -8,6 +8,7 @@ import mindustry.game.Teams.*;
 import mindustry.gen.*;
 import mindustry.world.*;
 import mindustry.world.blocks.ConstructBlock.*;
+import mindustry.world.meta.*;
 
 import static mindustry.Vars.*;
 
@@ -18,6 +19,8 @@ public class BuilderAI extends AIController{
     public @Nullable Unit following;
     public @Nullable Teamc enemy;
     public @Nullable BlockPlan lastPlan;
+    /** Damaged building that this unit stays near while idle, if it can heal. */
+    public @Nullable Building repairing;
 
     public float fleeRange = 370f, rebuildPeriod = defaultRebuildPeriod;
     public boolean alwaysFlee;
@@ -84,7 +87,7 @@ public class BuilderAI extends AIController{
             if((retreatTimer += Time.delta) >= retreatDelay || alwaysFlee){
                 if(enemy != null){
                     unit.clearBuilding();
-                    var core = unit.closestCore();
+                    var core = indexer.findClosestFlag(unit.x, unit.y, unit.team, BlockFlag.core);
                     if(core != null && !unit.within(core, retreatDst)){
                         moveTo(core, retreatDst);
                         moving = true;
@@ -131,6 +134,13 @@ public class BuilderAI extends AIController{
             if(assistFollowing != null){
                 moveTo(assistFollowing, assistFollowing.type.hitSize + unit.type.hitSize/2f + 60f);
                 moving = !unit.within(assistFollowing, assistFollowing.type.hitSize + unit.type.hitSize/2f + 65f);
+            }else if(repairing != null){
+                if(!repairing.isValid() || !repairing.damaged() || repairing.team != unit.team){
+                    repairing = null;
+                }else{
+                    moveTo(repairing, unit.type.range * 0.8f);
+                    moving = !unit.within(repairing, unit.type.range * 0.8f + 5f);
+                }
             }
 
             //follow someone and help them build
@@ -171,6 +181,11 @@ public class BuilderAI extends AIController{
 
                     assistFollowing = closest == null ? null : closest.unit();
                 }
+
+                //healers stay near the closest damaged building when there is nothing else to do
+                if(unit.type.canHeal && following == null && assistFollowing == null){
+                    repairing = indexer.findClosestDamaged(unit.team, unit.x, unit.y, buildRadius, null);
+                }
             }
 
             //find new plan
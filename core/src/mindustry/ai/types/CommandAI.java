@@ -20,6 +20,8 @@ public class CommandAI extends AIController{
     protected static final Vec2 vecOut = new Vec2(), vecMovePos = new Vec2();
     protected static final boolean[] noFound = {false};
     protected static final UnitPayload tmpPayload = new UnitPayload(null);
+    /** Commanded units that may block each other, shared by all instances. */
+    protected static final CommandUnitGrid commandGrid = new CommandUnitGrid();
 
     public Seq<Position> commandQueue = new Seq<>(5);
     public @Nullable Vec2 targetPos;
@@ -230,7 +232,7 @@ public class CommandAI extends AIController{
                     float max = unit.hitSize/2f;
                     float radius = Math.max(7f, max);
                     float margin = 4f;
-                    blockingUnit = Units.nearbyCheck(unit.x + dstPos.x - radius/2f, unit.y + dstPos.y - radius/2f, radius, radius,
+                    blockingUnit = commandGrid.any(unit.x + dstPos.x - radius/2f, unit.y + dstPos.y - radius/2f, radius, radius,
                         u -> u != unit && u.within(unit, u.hitSize/2f + unit.hitSize/2f + margin) && u.controller() instanceof CommandAI ai && ai.targetPos != null &&
                         //stop for other unit only if it's closer to the target
                         (ai.targetPos.equals(targetPos) && u.dst2(targetPos) < unit.dst2(targetPos)) &&
@@ -1,11 +1,12 @@
 package mindustry.ai.types;
 
 import arc.util.*;
-import mindustry.entities.*;
 import mindustry.entities.units.*;
 import mindustry.gen.*;
 import mindustry.world.blocks.ConstructBlock.*;
 
+import static mindustry.Vars.*;
+
 public class RepairAI extends AIController{
     public static float retreatDst = 160f, fleeRange = 310f, retreatDelay = Time.toSeconds * 3f;
 
@@ -63,8 +64,7 @@ public class RepairAI extends AIController{
     @Override
     public void updateTargeting(){
         if(timer.get(timerTarget, 15)){
-            damagedTarget = Units.findDamagedTile(unit.team, unit.x, unit.y);
-            if(damagedTarget instanceof ConstructBuild) damagedTarget = null;
+            damagedTarget = indexer.findClosestDamaged(unit.team, unit.x, unit.y, Float.MAX_VALUE, b -> !(b instanceof ConstructBuild));
         }
 
         if(damagedTarget == null){
@@ -4,11 +4,15 @@ import arc.math.*;
 import arc.math.geom.*;
 import arc.math.geom.QuadTree.*;
 import arc.struct.*;
+import arc.util.*;
 import mindustry.*;
 import mindustry.async.PhysicsProcess.PhysicsWorld.*;
 import mindustry.entities.*;
 import mindustry.gen.*;
 
+import java.util.*;
+import java.util.concurrent.*;
+
 public class PhysicsProcess implements AsyncProcess{
     public static final int
     layers = 3,
@@ -122,17 +126,27 @@ public class PhysicsProcess implements AsyncProcess{
     public static class PhysicsWorld{
         //how much to soften movement by
         private static final float scl = 1.25f;
-
-        private final QuadTree<PhysicsBody>[] trees = new QuadTree[layers];
+        /** Cells are at least this large, so that tiny bodies do not create huge grids. */
+        private static final float minCellSize = 16f;
+        /** Below this amount of bodies, a step is not worth splitting across threads. */
+        private static final int parallelThreshold = 800;
+        private static final int threads = Math.max(OS.cores - 1, 1);
+        private static final ExecutorService executor = Threads.executor("Physics", threads);
+
+        private final Rect bounds;
         private final Seq<PhysicsBody> bodies = new Seq<>(false, 16, PhysicsBody.class);
-        private final Seq<PhysicsBody> seq = new Seq<>(PhysicsBody.class);
-        private final Rect rect = new Rect();
-        private final Vec2 vec = new Vec2();
+        private final Seq<Future<?>> futures = new Seq<>();
+
+        /**
+         * A uniform grid of bodies for each layer, kept between steps. For each cell, heads holds the index of the first body in it,
+         * and next links the rest. Cells are at least as large as the largest body, so only neighboring cells need to be checked.
+         */
+        private int[] heads = {}, next = {};
+        private int gridWidth, gridHeight;
+        private float cellSize;
 
         public PhysicsWorld(Rect bounds){
-            for(int i = 0; i < layers; i++){
-                trees[i] = new QuadTree<>(new Rect(bounds));
-            }
+            this.bounds = new Rect(bounds);
         }
 
         public void add(PhysicsBody body){
@@ -144,59 +158,125 @@ public class PhysicsProcess implements AsyncProcess{
         }
 
         public void update(){
-            for(int i = 0; i < layers; i++){
-                trees[i].clear();
-            }
-
             var bodyItems = bodies.items;
             int bodySize = bodies.size;
 
+            float maxRadius = 0f;
             for(int i = 0; i < bodySize; i++){
                 PhysicsBody body = bodyItems[i];
                 body.collided = false;
-                trees[body.layer].insert(body);
+                maxRadius = Math.max(maxRadius, body.radius);
             }
 
-            for(int i = 0; i < bodySize; i++){
+            cellSize = Math.max(maxRadius * 2f, minCellSize);
+            gridWidth = Math.max(Mathf.ceil(bounds.width / cellSize), 1);
+            gridHeight = Math.max(Mathf.ceil(bounds.height / cellSize), 1);
+
+            int cells = gridWidth * gridHeight * layers;
+            if(heads.length < cells) heads = new int[cells];
+            if(next.length < bodySize) next = new int[Math.max(bodySize, next.length * 2)];
+            Arrays.fill(heads, 0, cells, -1);
+
+            //insert in reverse, so that each cell lists its bodies in the original order
+            for(int i = bodySize - 1; i >= 0; i--){
                 PhysicsBody body = bodyItems[i];
+                int index = cell(body.layer, cellX(body.x), cellY(body.y));
+                next[i] = heads[index];
+                heads[index] = i;
+            }
 
-                //for clients, the only body that collides is the local one; all other physics simulations are handled by the server.
-                if(!body.local) continue;
+            if(bodySize < parallelThreshold || gridHeight < 4){
+                resolveRows(0, gridHeight);
+                return;
+            }
 
-                body.hitbox(rect);
+            //split the grid into horizontal strips of at least two rows; bodies only affect bodies in adjacent rows,
+            //so strips that are not next to each other never touch the same bodies, and can be resolved at the same time
+            int stripRows = Math.max(gridHeight / (threads * 2), 2), strips = Mathf.ceil(gridHeight / (float)stripRows);
 
-                seq.size = 0;
-                trees[body.layer].intersect(rect, seq);
-                int size = seq.size;
-                var items = seq.items;
+            for(int parity = 0; parity < 2; parity++){
+                futures.clear();
+                for(int strip = parity; strip < strips; strip += 2){
+                    int from = strip * stripRows, to = Math.min(from + stripRows, gridHeight);
+                    futures.add(executor.submit(() -> resolveRows(from, to)));
+                }
 
-                for(int j = 0; j < size; j++){
-                    PhysicsBody other = items[j];
+                for(var future : futures){
+                    try{
+                        future.get();
+                    }catch(Exception e){
+                        throw new RuntimeException(e);
+                    }
+                }
+            }
+        }
 
-                    if(other == body || other.collided) continue;
+        void resolveRows(int fromRow, int toRow){
+            var bodyItems = bodies.items;
 
-                    float rs = body.radius + other.radius;
-                    float dst = Mathf.dst(body.x, body.y, other.x, other.y);
+            for(int layer = 0; layer < layers; layer++){
+                for(int cy = fromRow; cy < toRow; cy++){
+                    for(int cx = 0; cx < gridWidth; cx++){
+                        for(int i = heads[cell(layer, cx, cy)]; i != -1; i = next[i]){
+                            PhysicsBody body = bodyItems[i];
 
-                    if(dst < rs){
-                        vec.set(body.x - other.x, body.y - other.y).setLength(rs - dst);
-                        float ms = body.mass + other.mass;
-                        float m1 = other.mass / ms, m2 = body.mass / ms;
+                            //for clients, the only body that collides is the local one; all other physics simulations are handled by the server.
+                            if(!body.local) continue;
 
-                        //first body is always local due to guard check above
-                        body.x += vec.x * m1 / scl;
-                        body.y += vec.y * m1 / scl;
+                            resolve(body, layer, cx, cy);
+                            body.collided = true;
+                        }
+                    }
+                }
+            }
+        }
+
+        void resolve(PhysicsBody body, int layer, int cx, int cy){
+            var bodyItems = bodies.items;
+
+            for(int ny = Math.max(cy - 1, 0); ny <= Math.min(cy + 1, gridHeight - 1); ny++){
+                for(int nx = Math.max(cx - 1, 0); nx <= Math.min(cx + 1, gridWidth - 1); nx++){
+                    for(int j = heads[cell(layer, nx, ny)]; j != -1; j = next[j]){
+                        PhysicsBody other = bodyItems[j];
+
+                        if(other == body || other.collided) continue;
+
+                        float rs = body.radius + other.radius;
+                        float dx = body.x - other.x, dy = body.y - other.y;
+                        float dst = Mathf.sqrt(dx*dx + dy*dy);
 
-                        if(other.local){
-                            other.x -= vec.x * m2 / scl;
-                            other.y -= vec.y * m2 / scl;
+                        //bodies in the same position have no direction to be pushed in
+                        if(dst < rs && dst > 0f){
+                            float push = (rs - dst) / dst, vx = dx * push, vy = dy * push;
+                            float ms = body.mass + other.mass;
+                            float m1 = other.mass / ms, m2 = body.mass / ms;
+
+                            //first body is always local due to guard check in resolveRows
+                            body.x += vx * m1 / scl;
+                            body.y += vy * m1 / scl;
+
+                            if(other.local){
+                                other.x -= vx * m2 / scl;
+                                other.y -= vy * m2 / scl;
+                            }
                         }
                     }
                 }
-                body.collided = true;
             }
         }
 
+        private int cellX(float x){
+            return Mathf.clamp((int)((x - bounds.x) / cellSize), 0, gridWidth - 1);
+        }
+
+        private int cellY(float y){
+            return Mathf.clamp((int)((y - bounds.y) / cellSize), 0, gridHeight - 1);
+        }
+
+        private int cell(int layer, int cx, int cy){
+            return (layer * gridHeight + cy) * gridWidth + cx;
+        }
+
         public static class PhysicsBody implements QuadTreeObject{
             public float x, y, radius, mass;
             public int layer = 0;
@@ -482,6 +482,8 @@ public class Logic implements ApplicationListener{
                     runWave();
                 }
 
+                spawner.update();
+
                 //apply weather attributes
                 state.envAttrs.clear();
                 state.envAttrs.add(state.rules.attributes);
@@ -18,6 +18,7 @@ import mindustry.game.EventType.*;
 import mindustry.game.*;
 import mindustry.game.Teams.*;
 import mindustry.gen.*;
+import mindustry.io.*;
 import mindustry.logic.*;
 import mindustry.net.Administration.*;
 import mindustry.net.*;
@@ -27,7 +28,6 @@ import mindustry.world.modules.*;
 
 import java.io.*;
 import java.util.*;
-import java.util.zip.*;
 
 import static mindustry.Vars.*;
 
@@ -45,10 +45,14 @@ public class NetClient implements ApplicationListener{
     private boolean quiet = false;
     /** Whether to suppress disconnect events completely.*/
     private boolean quietReset = false;
+    /** Whether the floors of the world that is being received have already been read. */
+    private boolean staticWorldLoaded = false;
     /** Counter for data timeout. */
     private float timeoutTime = 0f;
     /** Last sent client snapshot ID. */
     private int lastSent;
+    /** Sequence of the newest entity snapshot received. Snapshots are unreliable, so older ones that arrive late are dropped. */
+    private int lastEntitySequence = -1;
 
     /** List of entities that were removed, and need not be added while syncing. */
     private IntSet removed = new IntSet();
@@ -108,6 +112,7 @@ public class NetClient implements ApplicationListener{
         });
 
         net.handleClient(Disconnect.class, packet -> {
+            cancelWorldLoad();
             if(quietReset) return;
 
             connecting = false;
@@ -131,9 +136,18 @@ public class NetClient implements ApplicationListener{
             }
         });
 
+        net.handleClientStream(WorldStream.class, builder -> {
+            //create the tiles as soon as the floors have arrived, while the rest of the world is still downloading
+            if(!staticWorldLoaded){
+                staticWorldLoaded = NetworkIO.loadWorldStatic(builder.bytes(), builder.size());
+            }
+        });
+
         net.handleClient(WorldStream.class, data -> {
             Log.info("Received world data: @ bytes.", data.stream.available());
-            NetworkIO.loadWorld(new InflaterInputStream(data.stream));
+            boolean loaded = staticWorldLoaded;
+            staticWorldLoaded = false;
+            NetworkIO.loadWorld(data.stream, loaded);
 
             finishConnecting();
         });
@@ -361,6 +375,7 @@ public class NetClient implements ApplicationListener{
 
     @Remote(variants = Variant.both)
     public static void worldDataBegin(){
+        netClient.cancelWorldLoad();
         Groups.clear();
         netClient.removed.clear();
         logic.reset();
@@ -399,7 +414,7 @@ public class NetClient implements ApplicationListener{
     }
 
     public static void readSyncEntity(DataInputStream input, Reads read) throws IOException{
-        int id = input.readInt();
+        int id = CompactIO.readVarInt(read);
         byte typeID = input.readByte();
 
         Syncc entity = Groups.sync.getByID(id);
@@ -434,8 +449,18 @@ public class NetClient implements ApplicationListener{
         }
     }
 
+    /** @return whether a snapshot with this sequence is not older than the newest one received, and should be applied. */
+    boolean acceptEntitySequence(int sequence){
+        if(sequence < lastEntitySequence) return false;
+        lastEntitySequence = sequence;
+        return true;
+    }
+
     @Remote(variants = Variant.one, priority = PacketPriority.low, unreliable = true)
-    public static void entitySnapshot(short amount, byte[] data){
+    public static void entitySnapshot(int sequence, short amount, byte[] data){
+        //a newer snapshot has already been applied, so this data would move entities back in time
+        if(!netClient.acceptEntitySequence(sequence)) return;
+
         try{
             netClient.byteStream.setBytes(data);
             DataInputStream input = netClient.dataStream;
@@ -450,13 +475,21 @@ public class NetClient implements ApplicationListener{
     }
 
     @Remote(variants = Variant.one, priority = PacketPriority.low, unreliable = true)
-    public static void hiddenSnapshot(IntSeq ids){
-        for(int i = 0; i < ids.size; i++){
-            int id = ids.items[i];
-            var entity = Groups.sync.getByID(id);
-            if(entity != null){
-                entity.handleSyncHidden();
+    public static void hiddenSnapshot(int sequence, int amount, byte[] ids){
+        if(!netClient.acceptEntitySequence(sequence)) return;
+
+        try{
+            netClient.byteStream.setBytes(ids);
+            Reads read = Reads.get(netClient.dataStream);
+
+            for(int i = 0; i < amount; i++){
+                var entity = Groups.sync.getByID(CompactIO.readVarInt(read));
+                if(entity != null){
+                    entity.handleSyncHidden();
+                }
             }
+        }catch(Exception e){
+            Log.err("Error reading hidden snapshot", e);
         }
     }
 
@@ -479,6 +512,8 @@ public class NetClient implements ApplicationListener{
                     break;
                 }
                 tile.build.readSync(Reads.get(input), tile.build.version());
+                //state changed on the server, so resume simulating it
+                tile.build.noSleep();
             }
         }catch(Exception e){
             Log.err(e);
@@ -573,7 +608,17 @@ public class NetClient implements ApplicationListener{
         Core.app.post(ui.loadfrag::hide);
     }
 
+    /** Stops loading a world whose data stopped arriving after its floors were read. */
+    private void cancelWorldLoad(){
+        if(staticWorldLoaded){
+            staticWorldLoaded = false;
+            content.setTemporaryMapper(null);
+            world.setGenerating(false);
+        }
+    }
+
     private void reset(){
+        cancelWorldLoad();
         net.setClientLoaded(false);
         removed.clear();
         timeoutTime = 0f;
@@ -581,6 +626,7 @@ public class NetClient implements ApplicationListener{
         quietReset = false;
         quiet = false;
         lastSent = 0;
+        lastEntitySequence = -1;
 
         Groups.clear();
         ui.chatfrag.clearMessages();
@@ -18,6 +18,7 @@ import mindustry.game.EventType.*;
 import mindustry.game.Teams.*;
 import mindustry.gen.*;
 import mindustry.graphics.*;
+import mindustry.io.*;
 import mindustry.logic.*;
 import mindustry.net.*;
 import mindustry.net.Administration.*;
@@ -35,8 +36,14 @@ import static mindustry.Vars.*;
 public class NetServer implements ApplicationListener{
     /** note that snapshots are compressed, so the max snapshot size here is above the typical UDP safe limit */
     private static final int maxSnapshotSize = 800;
+    /** Byte budget for entities outside the view of a throttled connection, per snapshot. */
+    private static final int maxThrottledSnapshotBytes = maxSnapshotSize * 4;
+    /** Fraction of lost client snapshots above which distant entities are sent redundantly to throttled connections. */
+    private static final float redundantSnapshotLoss = 0.02f;
     private static final int timerBlockSync = 0, timerHealthSync = 1;
     private static final float blockSyncTime = 60 * 6, healthSyncTime = 30;
+    /** Every building is re-sent once per this many block syncs, even if its data has not changed. */
+    private static final int blockRefreshRounds = 10;
     private static final FloatBuffer fbuffer = FloatBuffer.allocate(20);
     private static final Writes dataWrites = new Writes(null);
     private static final IntSeq hiddenIds = new IntSeq();
@@ -98,6 +105,9 @@ public class NetServer implements ApplicationListener{
     private boolean closing = false, pvpAutoPaused = true;
     private Interval timer = new Interval(10);
     private IntSet buildHealthChanged = new IntSet();
+    /** Compressed content header and floors of the current map, shared by every joining player. */
+    private @Nullable byte[] staticWorldData;
+    private int staticWorldFloorChanges;
 
     /** Current kick session. */
     public @Nullable VoteSession currentlyKicking = null;
@@ -115,6 +125,15 @@ public class NetServer implements ApplicationListener{
     private ReusableByteOutStream syncStream = new ReusableByteOutStream();
     /** Data stream for writing player sync data to. */
     private DataOutputStream dataStream = new DataOutputStream(syncStream);
+    /** Stream for writing the sync data of a single building, before it is known whether it has changed. */
+    private ReusableByteOutStream blockStream = new ReusableByteOutStream(127);
+    private Writes blockWrites = new Writes(new DataOutputStream(blockStream));
+    private int blockSyncRound;
+    /** Snapshot data shared by every player synced in the same frame. Only valid during {@link #sync()}. */
+    private Seq<byte[]> sharedEntityChunks = new Seq<>();
+    private IntSeq sharedEntityCounts = new IntSeq();
+    private byte[] sharedCoreData;
+    private boolean sharedSnapshotValid;
     /** Packet handlers for custom types of messages. */
     private ObjectMap<String, Seq<Cons2<Player, String>>> customPacketHandlers = new ObjectMap<>();
     /** Packet handlers for logic client data */
@@ -122,6 +141,8 @@ public class NetServer implements ApplicationListener{
 
     public NetServer(){
 
+        Events.on(WorldLoadEvent.class, e -> staticWorldData = null);
+
         net.handleServer(Connect.class, (con, connect) -> {
             Events.fire(new ConnectionEvent(con));
 
@@ -498,15 +519,51 @@ public class NetServer implements ApplicationListener{
         return assigner.assign(current, players);
     }
 
+    /**
+     * Writes the world for this player, then compresses and sends it off the main thread.
+     * The static part of the world is only written and compressed again when the map or its floors change.
+     */
     public void sendWorldData(Player player){
+        //the rest of the world is written right away, as reliable packets sent after this point are queued by the client and applied once it has loaded
         ByteArrayOutputStream stream = new ByteArrayOutputStream();
-        DeflaterOutputStream def = new FastDeflaterOutputStream(stream);
-        NetworkIO.writeWorld(player, def);
-        WorldStream data = new WorldStream();
-        data.stream = new ByteArrayInputStream(stream.toByteArray());
-        player.con.sendStream(data);
+        NetworkIO.writeWorld(stream);
+        byte[] world = stream.toByteArray(), header = NetworkIO.writeWorldPlayer(player), statics = staticWorldData();
+
+        mainExecutor.submit(() -> {
+            try{
+                ByteArrayOutputStream out = new ByteArrayOutputStream(header.length + statics.length + 4 + world.length / 4);
+                DataOutputStream data = new DataOutputStream(out);
+                data.write(header);
+                data.writeInt(statics.length);
+                data.write(statics);
+                try(DeflaterOutputStream def = new FastDeflaterOutputStream(data)){
+                    def.write(world);
+                }
+
+                Core.app.post(() -> {
+                    if(player.con == null || !player.con.isConnected()) return;
+
+                    WorldStream packet = new WorldStream();
+                    packet.stream = new ByteArrayInputStream(out.toByteArray());
+                    player.con.sendStream(packet);
+
+                    debug("Packed @ bytes of world data for @.", out.size(), player.plainName());
+                });
+            }catch(Throwable e){
+                err(e);
+            }
+        });
+    }
 
-        debug("Packed @ bytes of world data.", stream.size());
+    /** @return the compressed output of {@link NetworkIO#writeWorldStatic(OutputStream)}, written again only if the map or its floors have changed. */
+    byte[] staticWorldData(){
+        if(staticWorldData == null || staticWorldFloorChanges != world.floorChanges){
+            ByteArrayOutputStream stream = new ByteArrayOutputStream();
+            NetworkIO.writeWorldStatic(new FastDeflaterOutputStream(stream));
+            staticWorldData = stream.toByteArray();
+            staticWorldFloorChanges = world.floorChanges;
+        }
+        return staticWorldData;
     }
 
     public void addPacketHandler(String type, Cons2<Player, String> handler){
@@ -638,6 +695,7 @@ public class NetServer implements ApplicationListener{
 
         boolean verifyPosition = netServer.admins.isStrict() && headless;
 
+        con.updateQuality(snapshotID);
         if(con.lastReceivedClientTime == 0) con.lastReceivedClientTime = Time.millis() - 16;
 
         con.viewX = viewX;
@@ -846,6 +904,9 @@ public class NetServer implements ApplicationListener{
 
     @Override
     public void update(){
+        //packets from network threads are handled here, in one pass, for both the client and the server
+        net.handleQueued();
+
         if(!headless && !closing && net.server() && state.isMenu()){
             closing = true;
             ui.loadfrag.show("@server.closing");
@@ -906,14 +967,29 @@ public class NetServer implements ApplicationListener{
     public void writeBlockSnapshots() throws IOException{
         syncStream.reset();
 
+        blockSyncRound ++;
+
         short sent = 0;
         for(Building entity : Groups.build){
             if(!entity.block.sync) continue;
+
+            blockStream.reset();
+            entity.writeSync(blockWrites);
+
+            //only send buildings whose data changed since they were last sent; a slice of the rest is refreshed every round
+            byte[] bytes = blockStream.getBytes();
+            int size = blockStream.size();
+            if(sameBytes(entity.lastSync, bytes, size) && (entity.pos() + blockSyncRound) % blockRefreshRounds != 0) continue;
+
+            if(entity.lastSync == null || entity.lastSync.length != size){
+                entity.lastSync = new byte[size];
+            }
+            System.arraycopy(bytes, 0, entity.lastSync, 0, size);
             sent++;
 
             dataStream.writeInt(entity.pos());
             dataStream.writeShort(entity.block.id);
-            entity.writeSync(Writes.get(dataStream));
+            dataStream.write(blockStream.getBytes(), 0, blockStream.size());
 
             if(syncStream.size() > maxSnapshotSize){
                 dataStream.close();
@@ -929,8 +1005,124 @@ public class NetServer implements ApplicationListener{
         }
     }
 
+    private static boolean sameBytes(@Nullable byte[] last, byte[] bytes, int length){
+        if(last == null || last.length != length) return false;
+        for(int i = 0; i < length; i++){
+            if(last[i] != bytes[i]) return false;
+        }
+        return true;
+    }
+
     public void writeEntitySnapshot(Player player) throws IOException{
+        sharedSnapshotValid = false;
+        writeSharedEntitySnapshot(player);
+    }
+
+    /** Writes an entity snapshot for this player, reusing the data written for other players during the same sync where possible. */
+    void writeSharedEntitySnapshot(Player player) throws IOException{
         byte tps = (byte)Math.min(Core.graphics.getFramesPerSecond(), 255);
+
+        if(!sharedSnapshotValid){
+            writeSharedSnapshot();
+        }
+
+        //write basic state data.
+        Call.stateSnapshot(player.con, state.wavetime, state.wave, state.enemies, state.isPaused(), state.gameOver,
+        universe.seconds(), tps, GlobalVars.rand.seed0, GlobalVars.rand.seed1, sharedCoreData);
+
+        hiddenIds.clear();
+
+        for(Syncc entity : Groups.sync){
+            if(entity.isSyncHidden(player)){
+                hiddenIds.add(entity.id());
+            }
+        }
+
+        boolean throttled = player.con.isThrottled(Config.snapshotInterval.num());
+
+        if(hiddenIds.isEmpty() && !throttled){
+            //nothing is hidden from this player, so it gets the same data as everyone else
+            for(int i = 0; i < sharedEntityChunks.size; i++){
+                Call.entitySnapshot(player.con, player.con.snapshotsSent, (short)sharedEntityCounts.get(i), sharedEntityChunks.get(i));
+            }
+        }else{
+            writePlayerEntitySnapshot(player, throttled);
+
+            if(hiddenIds.size > 0){
+                syncStream.reset();
+                Writes write = Writes.get(dataStream);
+                for(int i = 0; i < hiddenIds.size; i++){
+                    CompactIO.writeVarInt(write, hiddenIds.items[i]);
+                }
+                dataStream.close();
+
+                Call.hiddenSnapshot(player.con, player.con.snapshotsSent, hiddenIds.size, syncStream.toByteArray());
+            }
+        }
+
+        player.con.snapshotsSent++;
+    }
+
+    /**
+     * Writes an entity snapshot for a single player. When the connection is throttled, entities in view are always sent first,
+     * and the rest are sent in turns within a limited budget.
+     */
+    private void writePlayerEntitySnapshot(Player player, boolean throttled) throws IOException{
+        NetConnection con = player.con;
+        int size = Groups.sync.size(), sent = 0, written = 0, offset = con.snapshotOffset, sentDistant = 0;
+        float margin = tilesize * 8f;
+
+        syncStream.reset();
+
+        for(int pass = 0; pass < (throttled ? 2 : 1); pass++){
+            for(int i = 0; i < size; i++){
+                Syncc entity = Groups.sync.index(pass == 0 ? i : (i + offset) % size);
+                //TODO write to special list
+                if(entity.isSyncHidden(player)) continue;
+
+                if(throttled){
+                    boolean inView = !(entity instanceof Posc pos) ||
+                        (Math.abs(pos.x() - con.viewX) <= con.viewWidth / 2f + margin && Math.abs(pos.y() - con.viewY) <= con.viewHeight / 2f + margin);
+
+                    if(inView != (pass == 0)) continue;
+                    if(pass == 1){
+                        if(written + syncStream.size() >= maxThrottledSnapshotBytes) break;
+                        sentDistant ++;
+                    }
+                }
+
+                //write all entities now
+                Writes write = Writes.get(dataStream);
+                CompactIO.writeVarInt(write, entity.id()); //write id
+                dataStream.writeByte(entity.classId() & 0xFF); //write type ID
+                entity.writeSync(write); //write entity
+
+                sent++;
+
+                if(syncStream.size() > maxSnapshotSize){
+                    dataStream.close();
+                    written += syncStream.size();
+                    Call.entitySnapshot(con, con.snapshotsSent, (short)sent, syncStream.toByteArray());
+                    sent = 0;
+                    syncStream.reset();
+                }
+            }
+        }
+
+        if(sent > 0){
+            dataStream.close();
+
+            Call.entitySnapshot(con, con.snapshotsSent, (short)sent, syncStream.toByteArray());
+        }
+
+        //when snapshots are being lost, only advance halfway, so that every distant entity is sent in two consecutive snapshots
+        //and a single lost packet does not leave it stale for a whole rotation
+        int advance = con.clientSnapshotLoss > redundantSnapshotLoss ? (sentDistant + 1) / 2 : sentDistant;
+        con.snapshotOffset = size == 0 ? 0 : (offset + advance) % size;
+    }
+
+    /** Writes the core items and the snapshot of every synced entity, which is the same for every player that has no hidden entities. */
+    private void writeSharedSnapshot() throws IOException{
         syncStream.reset();
         int activeTeams = (byte)state.teams.present.count(t -> t.cores.size > 0);
 
@@ -946,33 +1138,25 @@ public class NetServer implements ApplicationListener{
         }
 
         dataStream.close();
-
-        //write basic state data.
-        Call.stateSnapshot(player.con, state.wavetime, state.wave, state.enemies, state.isPaused(), state.gameOver,
-        universe.seconds(), tps, GlobalVars.rand.seed0, GlobalVars.rand.seed1, syncStream.toByteArray());
+        sharedCoreData = syncStream.toByteArray();
 
         syncStream.reset();
-
-        hiddenIds.clear();
+        sharedEntityChunks.clear();
+        sharedEntityCounts.clear();
         int sent = 0;
 
         for(Syncc entity : Groups.sync){
-            //TODO write to special list
-            if(entity.isSyncHidden(player)){
-                hiddenIds.add(entity.id());
-                continue;
-            }
-
-            //write all entities now
-            dataStream.writeInt(entity.id()); //write id
+            Writes write = Writes.get(dataStream);
+            CompactIO.writeVarInt(write, entity.id()); //write id
             dataStream.writeByte(entity.classId() & 0xFF); //write type ID
-            entity.writeSync(Writes.get(dataStream)); //write entity
+            entity.writeSync(write); //write entity
 
             sent++;
 
             if(syncStream.size() > maxSnapshotSize){
                 dataStream.close();
-                Call.entitySnapshot(player.con, (short)sent, syncStream.toByteArray());
+                sharedEntityChunks.add(syncStream.toByteArray());
+                sharedEntityCounts.add(sent);
                 sent = 0;
                 syncStream.reset();
             }
@@ -980,15 +1164,11 @@ public class NetServer implements ApplicationListener{
 
         if(sent > 0){
             dataStream.close();
-
-            Call.entitySnapshot(player.con, (short)sent, syncStream.toByteArray());
-        }
-
-        if(hiddenIds.size > 0){
-            Call.hiddenSnapshot(player.con, hiddenIds);
+            sharedEntityChunks.add(syncStream.toByteArray());
+            sharedEntityCounts.add(sent);
         }
 
-        player.con.snapshotsSent++;
+        sharedSnapshotValid = true;
     }
 
     public String fixName(String name){
@@ -1043,6 +1223,8 @@ public class NetServer implements ApplicationListener{
     void sync(){
         try{
             int interval = Config.snapshotInterval.num();
+            sharedSnapshotValid = false;
+
             Groups.player.each(p -> !p.isLocal(), player -> {
                 if(player.con == null || !player.con.isConnected()){
                     onDisconnect(player, "disappeared");
@@ -1051,12 +1233,13 @@ public class NetServer implements ApplicationListener{
 
                 var connection = player.con;
 
-                if(Time.timeSinceMillis(connection.syncTime) < interval || !connection.hasConnected) return;
+                if(Time.timeSinceMillis(connection.syncTime) < Math.max(connection.snapshotInterval, interval) || !connection.hasConnected) return;
 
                 connection.syncTime = Time.millis();
+                connection.updateSnapshotInterval(interval);
 
                 try{
-                    writeEntitySnapshot(player);
+                    writeSharedEntitySnapshot(player);
                 }catch(IOException e){
                     e.printStackTrace();
                 }
@@ -33,6 +33,8 @@ public class World{
     public Tiles tiles = new Tiles(0, 0);
     /** The number of times tiles have changed in this session. Used for blocks that need to poll world state, but not frequently. */
     public int tileChanges = -1;
+    /** The number of times a floor or overlay has changed in this session. Used to invalidate cached floor data. */
+    public int floorChanges = -1;
 
     private boolean generating, invalidMap;
     private ObjectMap<Map, Runnable> customMapLoaders = new ObjectMap<>();
@@ -459,10 +461,14 @@ public class World{
     }
 
     public void checkMapArea(){
-        for(var build : Groups.build){
-            //reset map-area-based disabled blocks.
-            if(!build.enabled && build.block.autoResetEnabled){
-                build.enabled = true;
+        //sleeping buildings are not in Groups.build, so go through each team's buildings
+        for(var data : state.teams.present){
+            for(var build : data.buildings){
+                //reset map-area-based disabled blocks.
+                if(!build.enabled && build.block.autoResetEnabled){
+                    build.enabled = true;
+                    build.noSleep();
+                }
             }
         }
     }
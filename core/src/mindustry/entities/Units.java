@@ -183,7 +183,7 @@ public class Units{
 
     /** Returns the nearest damaged tile. */
     public static Building findDamagedTile(Team team, float x, float y){
-        return indexer.getDamaged(team).min(b -> b.dst2(x, y));
+        return indexer.findClosestDamaged(team, x, y);
     }
 
     /** Returns the nearest ally tile in a range. */
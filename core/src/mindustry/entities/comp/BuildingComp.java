@@ -69,6 +69,7 @@ abstract class BuildingComp implements Posc, Teamc, Healthc, Buildingc, Timerc,
     transient float payloadRotation;
     transient String lastAccessed;
     transient boolean wasDamaged; //used only by the indexer
+    transient @Nullable byte[] lastSync; //used only by the server, to skip unchanged buildings in block snapshots
     transient float visualLiquid;
 
     /** TODO Each bit corresponds to a team ID. Only 64 are supported. Does not work on servers. */
@@ -220,6 +221,7 @@ abstract class BuildingComp implements Posc, Teamc, Healthc, Buildingc, Timerc,
             if(version >= 1){
                 byte on = read.b();
                 this.enabled = on == 1;
+                if(enabled) noSleep();
             }
 
             //get which modules should actually be read; this was added in version 2
@@ -439,6 +441,8 @@ abstract class BuildingComp implements Posc, Teamc, Healthc, Buildingc, Timerc,
             timeScaleDuration = Math.max(timeScaleDuration, duration);
         }
         timeScale = Math.max(timeScale, intensity);
+        //the time scale is only reset while updating
+        if(block.canOverdrive) noSleep();
     }
 
     public void applySlowdown(float intensity, float duration){
@@ -447,6 +451,7 @@ abstract class BuildingComp implements Posc, Teamc, Healthc, Buildingc, Timerc,
             timeScaleDuration = Math.max(timeScaleDuration, duration);
         }
         timeScale = Math.min(timeScale, intensity);
+        if(block.canOverdrive) noSleep();
     }
 
     public void applyHealSuppression(float amount){
@@ -625,6 +630,32 @@ abstract class BuildingComp implements Posc, Teamc, Healthc, Buildingc, Timerc,
         }
     }
 
+    /** Calls {@link #sleep()} if the block allows sleeping when idle, or {@link #noSleep()} if the entity is not idle. */
+    public void sleepIdle(boolean idle){
+        if(idle && block.sleepWhenIdle){
+            sleep();
+        }else{
+            noSleep();
+        }
+    }
+
+    /**
+     * Called when this entity is removed from its tile. A sleeping entity is not added, so remove() does nothing for it;
+     * this makes sure it is never added back when something tries to wake it up later.
+     */
+    public void clearSleep(){
+        sleepTime = 0f;
+        if(sleeping){
+            sleeping = false;
+            sleepingEntities--;
+        }
+    }
+
+    /** @return whether this entity is asleep, and therefore not updating. */
+    public boolean isSleeping(){
+        return sleeping;
+    }
+
     /** Returns the version of this Building IO code.*/
     public byte version(){
         return 0;
@@ -811,6 +842,7 @@ abstract class BuildingComp implements Posc, Teamc, Healthc, Buildingc, Timerc,
 
     public void handleItem(Building source, Item item){
         items.add(item, 1);
+        noSleep();
     }
 
     public boolean acceptItem(Building source, Item item){
@@ -823,6 +855,7 @@ abstract class BuildingComp implements Posc, Teamc, Healthc, Buildingc, Timerc,
 
     public void handleLiquid(Building source, Liquid liquid, float amount){
         liquids.add(liquid, amount);
+        noSleep();
     }
 
     //TODO entire liquid system is awful
@@ -1342,7 +1375,9 @@ abstract class BuildingComp implements Posc, Teamc, Healthc, Buildingc, Timerc,
         if(value instanceof Block) type = Block.class;
         if(value instanceof Liquid) type = Liquid.class;
         if(value instanceof UnitType) type = UnitType.class;
-        
+
+        noSleep();
+
         if(builder != null && builder.isPlayer()){
             updateLastAccess(builder.getPlayer());
         }
@@ -1953,6 +1988,7 @@ abstract class BuildingComp implements Posc, Teamc, Healthc, Buildingc, Timerc,
         }
 
         indexer.notifyHealthChanged(self());
+        noSleep();
     }
 
     @Override
@@ -2012,6 +2048,8 @@ abstract class BuildingComp implements Posc, Teamc, Healthc, Buildingc, Timerc,
     public void control(LAccess type, double p1, double p2, double p3, double p4){
         if(type == LAccess.enabled){
             enabled = !Mathf.zero((float)p1);
+            //a disabled building may have fallen asleep
+            if(enabled) noSleep();
         }
     }
 
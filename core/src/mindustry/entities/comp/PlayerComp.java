@@ -36,8 +36,8 @@ abstract class PlayerComp implements UnitController, Entityc, Syncc, Timerc, Dra
     @ReadOnly @Nullable Unit unit;
     transient @Nullable NetConnection con;
     @ReadOnly Team team = Team.sharded;
-    @SyncLocal boolean typing, shooting, boosting;
-    @SyncLocal float mouseX, mouseY;
+    @SyncLocal @SyncCompact(CompactMode.flag) boolean typing, shooting, boosting;
+    @SyncLocal @SyncCompact(CompactMode.position) float mouseX, mouseY;
     /** command the unit had before it was controlled. */
     @Nullable @NoSync UnitCommand lastCommand;
     boolean admin;
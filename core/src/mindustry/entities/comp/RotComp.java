@@ -5,5 +5,5 @@ import mindustry.gen.*;
 
 @Component
 abstract class RotComp implements Entityc{
-    @SyncField(false) @SyncLocal float rotation;
+    @SyncField(false) @SyncLocal @SyncCompact(CompactMode.angle) float rotation;
 }
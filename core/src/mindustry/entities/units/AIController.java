@@ -18,12 +18,21 @@ import static mindustry.Vars.*;
 public class AIController implements UnitController{
     protected static final Vec2 vec = new Vec2();
     protected static final float rotateBackTimer = 60f * 5f;
-    protected static final int timerTarget = 0, timerTarget2 = 1, timerTarget3 = 2, timerTarget4 = 3;
+    protected static final int timerTarget = 0, timerTarget2 = 1, timerTarget3 = 2, timerTarget4 = 3, timerLod = 4;
+    /** How often the level of detail of a unit is re-evaluated, in ticks. */
+    protected static final float lodInterval = 60f;
+
+    /** Units that are this far from every player and not fighting make expensive decisions less often. */
+    public static float lodRange = 60f * Vars.tilesize;
+    /** Multiplier for the interval of expensive decisions for units that are far from players. Set to 1 to disable. */
+    public static float lodFarScale = 3f;
 
     protected Unit unit;
-    protected Interval timer = new Interval(4);
+    protected Interval timer = new Interval(5);
     protected AIController fallback;
     protected float noTargetTime;
+    /** Multiplier for the interval of expensive decisions such as retargeting. See {@link #updateLod()}. */
+    protected float lodScale = 1f;
 
     /** main target that is being faced */
     protected Teamc target;
@@ -31,6 +40,7 @@ public class AIController implements UnitController{
     {
         timer.reset(0, Mathf.random(40f));
         timer.reset(1, Mathf.random(60f));
+        timer.reset(timerLod, Mathf.random(lodInterval));
     }
 
     @Override
@@ -42,11 +52,29 @@ public class AIController implements UnitController{
             return;
         }
 
+        //evaluated in staggered intervals, as it checks every player
+        if(timer.get(timerLod, lodInterval)){
+            updateLod();
+        }
+
         updateVisuals();
         updateTargeting();
         updateMovement();
     }
 
+    /** Updates the level of detail of this unit. Units that are fighting, were recently hit or are near a player are always at full detail. */
+    public void updateLod(){
+        lodScale = 1f;
+
+        if(lodFarScale <= 1f || unit.hitTime > 0f || (target != null && target.within(unit, unit.range() + lodRange / 4f))) return;
+
+        for(var player : Groups.player){
+            if(player.within(unit, lodRange)) return;
+        }
+
+        lodScale = lodFarScale;
+    }
+
     /**
      * @return whether controller state should not be reset after reading.
      * Do not override unless you know exactly what you are doing.
@@ -223,7 +251,7 @@ public class AIController implements UnitController{
 
     public Teamc targetFlag(float x, float y, BlockFlag flag, boolean enemy){
         if(unit.team == Team.derelict) return null;
-        return Geometry.findClosest(x, y, enemy ? indexer.getEnemy(unit.team, flag) : indexer.getFlagged(unit.team, flag));
+        return enemy ? indexer.findClosestEnemyFlag(x, y, unit.team, flag) : indexer.findClosestFlag(x, y, unit.team, flag);
     }
 
     public Teamc target(float x, float y, float range, boolean air, boolean ground){
@@ -231,7 +259,7 @@ public class AIController implements UnitController{
     }
 
     public boolean retarget(){
-        return timer.get(timerTarget, target == null ? 40 : 90);
+        return timer.get(timerTarget, (target == null ? 40 : 90) * lodScale);
     }
 
     public Teamc findMainTarget(float x, float y, float range, boolean air, boolean ground){
@@ -15,25 +15,21 @@ import mindustry.io.*;
 import mindustry.world.meta.*;
 
 import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
 
 import static mindustry.Vars.*;
 
 public final class FogControl implements CustomChunk{
     private static volatile int ww, wh;
     private static final int dynamicUpdateInterval = 1000 / 25; //25 FPS
-    private static final Object notifyStatic = new Object(), notifyDynamic = new Object();
+    /** each team's fog is updated by its own task in this pool, so teams are processed in parallel */
+    private static final ExecutorService executor = Threads.executor("Fog", Math.max(OS.cores - 1, 1));
 
     /** indexed by team */
     private volatile @Nullable FogData[] fog;
 
-    private final LongSeq staticEvents = new LongSeq();
-    private final LongSeq dynamicEventQueue = new LongSeq(), unitEventQueue = new LongSeq();
-    /** access must be synchronized; accessed from both threads */
-    private final LongSeq dynamicEvents = new LongSeq(100);
-
-    private @Nullable Thread staticFogThread;
-    private @Nullable Thread dynamicFogThread;
-
     private boolean justLoaded = false;
     private boolean loadedStatic = false;
 
@@ -68,10 +64,7 @@ public final class FogControl implements CustomChunk{
                 }
 
                 if(state.rules.staticFog){
-                    synchronized(staticEvents){
-                        //TODO event per team?
-                        pushEvent(FogEvent.get(event.tile.x, event.tile.y, Mathf.round(event.tile.build.fogRadius()), event.tile.build.team.id), false);
-                    }
+                    pushEvent(FogEvent.get(event.tile.x, event.tile.y, Mathf.round(event.tile.build.fogRadius()), event.tile.build.team.id), false);
                 }
             }
         });
@@ -93,7 +86,24 @@ public final class FogControl implements CustomChunk{
             }
         });
 
-        SaveVersion.addCustomChunk("static-fog-data", this);
+        SaveVersion.addCustomChunk("static-fog-data-v2", this);
+
+        //older saves use runs of at most 127 tiles
+        SaveVersion.addCustomChunk("static-fog-data", new CustomChunk(){
+            @Override
+            public void write(DataOutput stream){
+            }
+
+            @Override
+            public void read(DataInput stream) throws IOException{
+                readLegacy(stream);
+            }
+
+            @Override
+            public boolean shouldWrite(){
+                return false;
+            }
+        });
     }
 
     public @Nullable Bits getDiscovered(Team team){
@@ -119,7 +129,8 @@ public final class FogControl implements CustomChunk{
         var data = data(team);
         if(data == null) return false;
         if(x < 0 || y < 0 || x >= ww || y >= wh) return false;
-        return data.read.get(x + y * ww);
+        //no locking; the fog thread changes this in place, so a read may lag slightly behind the latest update
+        return data.visible.get(x + y * ww);
     }
 
     public void resetFog(){
@@ -131,34 +142,21 @@ public final class FogControl implements CustomChunk{
     }
 
     void stop(){
+        //tasks that are still running only hold on to the old data, and stop when they see that it was replaced
         fog = null;
-        //I don't care whether the fog thread crashes here, it's about to die anyway
-        staticEvents.clear();
-        if(staticFogThread != null){
-            staticFogThread.interrupt();
-            staticFogThread = null;
-        }
-
-        dynamicEvents.clear();
-        if(dynamicFogThread != null){
-            dynamicFogThread.interrupt();
-            dynamicFogThread = null;
-        }
     }
 
     /** @param initial whether this is the initial update; if true, does not update renderer */
     void pushStaticBlocks(boolean initial){
         if(fog == null) fog = new FogData[256];
 
-        synchronized(staticEvents){
-            for(var build : Groups.build){
-                if(build.block.flags.contains(BlockFlag.hasFogRadius)){
-                    if(fog[build.team.id] == null){
-                        fog[build.team.id] = new FogData();
-                    }
-
-                    pushEvent(FogEvent.get(build.tile.x, build.tile.y, Mathf.round(build.fogRadius()), build.team.id), initial);
+        for(var build : Groups.build){
+            if(build.block.flags.contains(BlockFlag.hasFogRadius)){
+                if(fog[build.team.id] == null){
+                    fog[build.team.id] = new FogData();
                 }
+
+                pushEvent(FogEvent.get(build.tile.x, build.tile.y, Mathf.round(build.fogRadius()), build.team.id), initial);
             }
         }
     }
@@ -167,7 +165,10 @@ public final class FogControl implements CustomChunk{
     void pushEvent(long event, boolean skipRender){
         if(!state.rules.staticFog) return;
 
-        staticEvents.add(event);
+        var data = fog == null ? null : fog[FogEvent.team(event)];
+        if(data != null){
+            data.staticQueue.add(event);
+        }
         if(!skipRender && !headless && FogEvent.team(event) == Vars.player.team().id){
             renderer.fog.handleEvent(event);
         }
@@ -178,9 +179,7 @@ public final class FogControl implements CustomChunk{
             fog[team.id].dynamicUpdated = true;
 
             if(state.rules.staticFog){
-                synchronized(staticEvents){
-                    pushEvent(FogEvent.get(build.tile.x, build.tile.y, Mathf.round(build.fogRadius()), build.team.id), false);
-                }
+                pushEvent(FogEvent.get(build.tile.x, build.tile.y, Mathf.round(build.fogRadius()), build.team.id), false);
             }
         }
     }
@@ -190,6 +189,8 @@ public final class FogControl implements CustomChunk{
             fog = new FogData[256];
         }
 
+        FogData[] fog = this.fog;
+
         //force update static
         if(state.rules.staticFog && !loadedStatic){
             pushStaticBlocks(false);
@@ -197,219 +198,172 @@ public final class FogControl implements CustomChunk{
             loadedStatic = true;
         }
 
-        if(staticFogThread == null){
-            staticFogThread = new StaticFogThread();
-            staticFogThread.setPriority(Thread.NORM_PRIORITY - 1);
-            staticFogThread.setDaemon(true);
-            staticFogThread.start();
-        }
-
-        if(dynamicFogThread == null){
-            dynamicFogThread = new DynamicFogThread();
-            dynamicFogThread.setPriority(Thread.NORM_PRIORITY - 1);
-            dynamicFogThread.setDaemon(true);
-            dynamicFogThread.start();
-        }
-
-        //clear to prepare for queuing fog radius from units and buildings
-        dynamicEventQueue.clear();
-
         for(var team : state.teams.present){
             //AI teams do not have fog
             if(!team.team.isOnlyAI()){
-                //separate for each team
-                unitEventQueue.clear();
-
                 FogData data = fog[team.team.id];
 
                 if(data == null){
                     data = fog[team.team.id] = new FogData();
                 }
 
-                synchronized(staticEvents){
-                    //TODO slow?
-                    for(var unit : team.units){
-                        int tx = unit.tileX(), ty = unit.tileY(), pos = tx + ty * ww;
-                        if(unit.type.fogRadius <= 0f) continue;
-                        long event = FogEvent.get(tx, ty, (int)unit.type.fogRadius, team.team.id);
+                //whether anything was handed off to this team's task
+                boolean flush = false;
 
-                        //always update the dynamic events, but only *flush* the results when necessary?
-                        unitEventQueue.add(event);
+                for(var unit : team.units){
+                    int tx = unit.tileX(), ty = unit.tileY(), pos = tx + ty * ww;
+                    if(unit.type.fogRadius <= 0f) continue;
 
-                        if(unit.lastFogPos != pos){
-                            pushEvent(event, false);
-                            unit.lastFogPos = pos;
-                            data.dynamicUpdated = true;
-                        }
+                    if(unit.lastFogPos != pos){
+                        pushEvent(FogEvent.get(tx, ty, (int)unit.type.fogRadius, team.team.id), false);
+                        unit.lastFogPos = pos;
+                        data.dynamicUpdated = true;
                     }
                 }
 
-                //if it's time for an update, flush *everything* onto the update queue
+                //if it's time for an update, flush *everything* to the team's task
                 if(data.dynamicUpdated && Time.timeSinceMillis(data.lastDynamicMs) > dynamicUpdateInterval){
                     data.dynamicUpdated = false;
                     data.lastDynamicMs = Time.millis();
 
+                    //the full set of sources is only built when it is going to be flushed
+                    LongSeq sources = data.obtain();
+
                     //add building updates
                     for(var build : indexer.getFlagged(team.team, BlockFlag.hasFogRadius)){
-                        dynamicEventQueue.add(FogEvent.get(build.tile.x, build.tile.y, Mathf.round(build.fogRadius()), build.team.id));
+                        sources.add(FogEvent.get(build.tile.x, build.tile.y, Mathf.round(build.fogRadius()), build.team.id));
                     }
 
                     //add unit updates
-                    dynamicEventQueue.addAll(unitEventQueue);
-                }
-            }
-        }
+                    for(var unit : team.units){
+                        if(unit.type.fogRadius <= 0f) continue;
+                        sources.add(FogEvent.get(unit.tileX(), unit.tileY(), (int)unit.type.fogRadius, team.team.id));
+                    }
 
-        if(dynamicEventQueue.size > 0){
-            //flush unit events over when something happens
-            synchronized(dynamicEvents){
-                dynamicEvents.clear();
-                dynamicEvents.addAll(dynamicEventQueue);
-            }
-            dynamicEventQueue.clear();
+                    if(justLoaded){
+                        //force update so visibility doesn't have a pop-in; no task has been scheduled for this data yet
+                        applySources(data, sources);
+                    }else{
+                        //an older set that has not been applied yet is replaced, since this one is complete
+                        LongSeq replaced = data.pendingSources.getAndSet(sources);
+                        if(replaced != null) data.spare.add(replaced);
+                        flush = true;
+                    }
+                }
 
-            //force update so visibility doesn't have a pop-in
-            if(justLoaded){
-                updateDynamic(new Bits(256));
-                justLoaded = false;
-            }
+                if(data.staticQueue.size > 0){
+                    data.staticBatches.add(data.staticQueue);
+                    data.staticQueue = data.obtain();
+                    flush = true;
+                }
 
-            //notify that it's time for rendering
-            //TODO this WILL block until it is done rendering, which is inherently problematic.
-            synchronized(notifyDynamic){
-                notifyDynamic.notify();
+                if(flush){
+                    schedule(fog, data);
+                }
             }
         }
 
-        //wake up, it's time to draw some circles
-        if(state.rules.staticFog && staticEvents.size > 0 && staticFogThread != null){
-            synchronized(notifyStatic){
-                notifyStatic.notify();
-            }
-        }
+        justLoaded = false;
     }
 
-    class StaticFogThread extends Thread{
-
-        StaticFogThread(){
-            super("StaticFogThread");
-        }
+    /** Draws all queued static events on the current thread. Only used before any tasks are scheduled for the current fog data. */
+    void updateStatic(){
+        if(fog == null) return;
 
-        @Override
-        public void run(){
-            while(true){
-                try{
-                    synchronized(notifyStatic){
-                        try{
-                            //wait until an event happens
-                            notifyStatic.wait();
-                        }catch(InterruptedException e){
-                            //end thread
-                            return;
-                        }
-                    }
+        for(var data : fog){
+            if(data == null) continue;
 
-                    updateStatic();
-                    //ignore, don't want to crash this thread
-                }catch(Exception e){}
+            for(int i = 0; i < data.staticQueue.size; i++){
+                drawStatic(data, data.staticQueue.items[i]);
             }
+            data.staticQueue.clear();
         }
     }
 
-    void updateStatic(){
-
-        //I really don't like synchronizing here, but there should be *some* performance benefit at least
-        synchronized(staticEvents){
-            int size = staticEvents.size;
-            for(int i = 0; i < size; i++){
-                long event = staticEvents.items[i];
-                int x = FogEvent.x(event), y = FogEvent.y(event), rad = FogEvent.radius(event), team = FogEvent.team(event);
-                var data = fog[team];
-                if(data != null){
-                    circle(data.staticData, x, y, rad);
-                }
-            }
-            staticEvents.clear();
+    /** Starts a task for this team, unless one is already queued or running. The task picks up everything handed off before it ends. */
+    void schedule(FogData[] owner, FogData data){
+        if(data.scheduled.compareAndSet(false, true)){
+            executor.submit(() -> process(owner, data));
         }
     }
 
-    class DynamicFogThread extends Thread{
-        final Bits cleared = new Bits();
+    void process(FogData[] owner, FogData data){
+        try{
+            do{
+                LongSeq batch;
+                while((batch = data.staticBatches.poll()) != null){
+                    //the world was reloaded; circles would be drawn with the wrong dimensions
+                    if(fog != owner) return;
 
-        DynamicFogThread(){
-            super("DynamicFogThread");
-        }
-
-        @Override
-        public void run(){
-
-            while(true){
-                try{
-                    synchronized(notifyDynamic){
-                        try{
-                            //wait until an event happens
-                            notifyDynamic.wait();
-                        }catch(InterruptedException e){
-                            //end thread
-                            return;
-                        }
+                    for(int i = 0; i < batch.size; i++){
+                        drawStatic(data, batch.items[i]);
                     }
-
-                    updateDynamic(cleared);
-
-                    //ignore, don't want to crash this thread
-                }catch(Exception e){
-                    //log for debugging
-                    e.printStackTrace();
+                    data.spare.add(batch);
                 }
-            }
-        }
-    }
-
-    void updateDynamic(Bits cleared){
-        cleared.clear();
 
-        //ugly sync
-        synchronized(dynamicEvents){
-            int size = dynamicEvents.size;
-
-            //draw step
-            for(int i = 0; i < size; i++){
-                long event = dynamicEvents.items[i];
-                int x = FogEvent.x(event), y = FogEvent.y(event), rad = FogEvent.radius(event), team = FogEvent.team(event);
-
-                if(rad <= 0) continue;
+                LongSeq sources = data.pendingSources.getAndSet(null);
+                if(sources != null && fog == owner){
+                    applySources(data, sources);
+                }
 
-                var data = fog[team];
-                if(data != null){
+                data.scheduled.set(false);
 
-                    //clear the buffer, since it is being re-drawn
-                    if(!cleared.get(team)){
-                        cleared.set(team);
+                //something may have been handed off after the queues were checked, but before the flag was reset
+            }while((!data.staticBatches.isEmpty() || data.pendingSources.get() != null) && data.scheduled.compareAndSet(false, true));
+        }catch(Exception e){
+            data.scheduled.set(false);
+            //log for debugging
+            Log.err(e);
+        }
+    }
 
-                        data.write.clear();
-                    }
+    static void drawStatic(FogData data, long event){
+        data.staticChanged = true;
+        circle(data.staticData, FogEvent.x(event), FogEvent.y(event), FogEvent.radius(event));
+    }
 
-                    //radius is always +1 to keep up with visuals
-                    circle(data.write, x, y, rad + 1);
-                }
+    /**
+     * Applies a new full set of dynamic sources for a team. The set is compared with the one applied last time,
+     * and only the circles of sources that appeared or disappeared are drawn into the coverage counts.
+     */
+    static void applySources(FogData data, LongSeq next){
+        LongSeq last = data.sources, removed = data.removed;
+        Arrays.sort(last.items, 0, last.size);
+        Arrays.sort(next.items, 0, next.size);
+
+        //sources that have not moved are in both lists and need no work
+        removed.clear();
+        int i = 0, j = 0;
+        while(i < last.size || j < next.size){
+            if(j >= next.size || (i < last.size && last.items[i] < next.items[j])){
+                removed.add(last.items[i++]);
+            }else if(i >= last.size || next.items[j] < last.items[i]){
+                draw(data, next.items[j++], 1);
+            }else{
+                i++;
+                j++;
             }
-            dynamicEvents.clear();
         }
 
-        //swap step, no need for synchronization or anything
-        for(int i = 0; i < 256; i++){
-            if(cleared.get(i)){
-                var data = fog[i];
-
-                //swap buffers, flushing the data that was just drawn
-                Bits temp = data.read;
-                data.read = data.write;
-                data.write = temp;
-            }
+        //new coverage is added before old coverage is removed, so tiles seen from both positions never flicker
+        for(int k = 0; k < removed.size; k++){
+            draw(data, removed.items[k], -1);
         }
+
+        data.sources = next;
+        data.spare.add(last);
     }
 
+    static void draw(FogData data, long event, int delta){
+        if(FogEvent.radius(event) <= 0) return;
+        //radius is always +1 to keep up with visuals
+        circle(data, FogEvent.x(event), FogEvent.y(event), FogEvent.radius(event) + 1, delta);
+    }
+
+    /**
+     * Writes the static fog of every team as alternating runs of hidden and discovered tiles, starting with a hidden run.
+     * Each team's data is prefixed with its length, and re-encoded only if it changed since the last save.
+     */
     @Override
     public void write(DataOutput stream) throws IOException{
         int used = 0;
@@ -422,26 +376,17 @@ public final class FogControl implements CustomChunk{
         stream.writeShort(world.height());
 
         for(int i = 0; i < 256; i++){
-            if(fog[i] != null){
-                stream.writeByte(i);
-                Bits data = fog[i].staticData;
-                int size = ww * wh;
-
-                int pos = 0;
-                while(pos < size){
-                    int consecutives = 0;
-                    boolean cur = data.get(pos);
-                    while(consecutives < 127 && pos < size){
-                        if(cur != data.get(pos)){
-                            break;
-                        }
-
-                        consecutives ++;
-                        pos ++;
-                    }
-                    int mask = (cur ? 0b1000_0000 : 0);
-                    stream.write(mask | (consecutives));
+            var data = fog[i];
+            if(data != null){
+                if(data.encodedStatic == null || data.staticChanged){
+                    //reset first, so that changes made while encoding mark it again
+                    data.staticChanged = false;
+                    data.encodedStatic = encodeRuns(data.staticData, ww * wh);
                 }
+
+                stream.writeByte(i);
+                stream.writeInt(data.encodedStatic.length);
+                stream.write(data.encodedStatic);
             }
         }
     }
@@ -457,6 +402,37 @@ public final class FogControl implements CustomChunk{
         ww = w;
         wh = h;
 
+        for(int ti = 0; ti < teams; ti++){
+            int team = stream.readUnsignedByte();
+            var data = fog[team] = new FogData();
+            stream.readInt();
+
+            //whole runs are set at once, so reading takes time proportional to the amount of runs and not the size of the map
+            Bits bools = data.staticData;
+            int pos = 0;
+            boolean discovered = false;
+            while(pos < len){
+                int run = Math.min(readVarInt(stream), len - pos);
+                if(discovered){
+                    bools.set(pos, pos + run);
+                }
+                pos += run;
+                discovered = !discovered;
+            }
+        }
+    }
+
+    /** Reads static fog from the old "static-fog-data" chunk, which stores runs of at most 127 tiles with the state in the high bit. */
+    public void readLegacy(DataInput stream) throws IOException{
+        if(fog == null) fog = new FogData[256];
+
+        int teams = stream.readUnsignedByte();
+        int w = stream.readShort(), h = stream.readShort();
+        int len = w * h;
+
+        ww = w;
+        wh = h;
+
         for(int ti = 0; ti < teams; ti++){
             int team = stream.readUnsignedByte();
             fog[team] = new FogData();
@@ -477,7 +453,42 @@ public final class FogControl implements CustomChunk{
                 }
             }
         }
+    }
+
+    static byte[] encodeRuns(Bits bits, int size){
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        int pos = 0;
+        boolean discovered = false;
+
+        //find the end of each run with a word-level search instead of checking every tile
+        while(pos < size){
+            int end = discovered ? bits.nextClearBit(pos) : bits.nextSetBit(pos);
+            if(end < 0 || end > size) end = size;
+            writeVarInt(bytes, end - pos);
+            pos = end;
+            discovered = !discovered;
+        }
 
+        return bytes.toByteArray();
+    }
+
+    static void writeVarInt(ByteArrayOutputStream out, int value){
+        while((value & ~0x7F) != 0){
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    static int readVarInt(DataInput stream) throws IOException{
+        int value = 0, shift = 0;
+        byte next;
+        do{
+            next = stream.readByte();
+            value |= (next & 0x7F) << shift;
+            shift += 7;
+        }while((next & 0x80) != 0 && shift < 35);
+        return value;
     }
 
     @Override
@@ -510,6 +521,54 @@ public final class FogControl implements CustomChunk{
         }
     }
 
+    /** Same as {@link #circle(Bits, int, int, int)}, but adds the delta to the coverage count of every tile drawn. Overlapping lines cancel out when the same circle is removed. */
+    static void circle(FogData data, int x, int y, int radius, int delta){
+        int f = 1 - radius;
+        int ddFx = 1, ddFy = -2 * radius;
+        int px = 0, py = radius;
+
+        hline(data, x, x, y + radius, delta);
+        hline(data, x, x, y - radius, delta);
+        hline(data, x - radius, x + radius, y, delta);
+
+        while(px < py){
+            if(f >= 0){
+                py--;
+                ddFy += 2;
+                f += ddFy;
+            }
+            px++;
+            ddFx += 2;
+            f += ddFx;
+            hline(data, x - px, x + px, y + py, delta);
+            hline(data, x - px, x + px, y - py, delta);
+            hline(data, x - py, x + py, y + px, delta);
+            hline(data, x - py, x + py, y - px, delta);
+        }
+    }
+
+    static void hline(FogData data, int x1, int x2, int y, int delta){
+        if(y < 0 || y >= wh) return;
+
+        int from = Math.max(Math.min(x1, x2), 0), to = Math.min(Math.max(x1, x2), ww - 1);
+        if(from > to) return;
+
+        int off = y * ww;
+        short[] counts = data.coverage;
+        Bits visible = data.visible;
+
+        for(int i = off + from; i <= off + to; i++){
+            int count = counts[i] + delta;
+            counts[i] = (short)count;
+
+            if(delta > 0 && count == 1){
+                visible.set(i);
+            }else if(delta < 0 && count == 0){
+                visible.clear(i);
+            }
+        }
+    }
+
     static void hline(Bits arr, int x1, int x2, int y){
         if(y < 0 || y >= wh) return;
         int tmp;
@@ -532,10 +591,29 @@ public final class FogControl implements CustomChunk{
     }
 
     static class FogData{
-        /** dynamic double-buffered data for dynamic (live) coverage */
-        volatile Bits read, write;
+        /** dynamic (live) coverage; a tile is visible if its count is above zero */
+        final Bits visible;
+        /** amount of dynamic sources that can see each tile; only accessed by this team's task */
+        final short[] coverage;
+        /** dynamic sources that are currently drawn; only accessed by this team's task */
+        LongSeq sources = new LongSeq();
+        final LongSeq removed = new LongSeq();
+
+        /** static events pushed on the main thread since the last handoff */
+        LongSeq staticQueue = new LongSeq();
+        /** static events handed off to this team's task */
+        final ConcurrentLinkedQueue<LongSeq> staticBatches = new ConcurrentLinkedQueue<>();
+        /** the latest full set of dynamic sources that has not been applied yet */
+        final AtomicReference<LongSeq> pendingSources = new AtomicReference<>();
+        /** lists that have been processed, returned to the main thread for reuse */
+        final ConcurrentLinkedQueue<LongSeq> spare = new ConcurrentLinkedQueue<>();
+        /** whether a task for this team is queued or running */
+        final AtomicBoolean scheduled = new AtomicBoolean();
         /** static map exploration fog*/
         final Bits staticData;
+        /** static data as last written to a save; only re-encoded if it changed since */
+        @Nullable byte[] encodedStatic;
+        volatile boolean staticChanged;
 
         /** last dynamic update timestamp. */
         long lastDynamicMs = 0;
@@ -545,10 +623,17 @@ public final class FogControl implements CustomChunk{
         FogData(){
             int len = ww * wh;
 
-            read = new Bits(len);
-            write = new Bits(len);
+            visible = new Bits(len);
+            coverage = new short[len];
             staticData = new Bits(len);
         }
+
+        LongSeq obtain(){
+            LongSeq seq = spare.poll();
+            if(seq == null) return new LongSeq();
+            seq.clear();
+            return seq;
+        }
     }
 
     @Struct
@@ -1056,10 +1056,7 @@ public class MobileInput extends InputHandler implements GestureListener{
                     }
 
                     if(allowHealing && target == null){
-                        target = Geometry.findClosest(unit.x, unit.y, indexer.getDamaged(player.team()));
-                        if(target != null && !unit.within(target, range)){
-                            target = null;
-                        }
+                        target = indexer.findClosestDamaged(player.team(), unit.x, unit.y, range, null);
                     }
                 }
 
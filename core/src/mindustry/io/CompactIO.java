@@ -0,0 +1,48 @@
+package mindustry.io;
+
+import arc.math.*;
+import arc.util.io.*;
+import mindustry.annotations.Annotations.*;
+
+/** Encodings used by generated sync code for fields marked with {@link SyncCompact}. */
+public class CompactIO{
+    /** Positions are rounded to 1/positionScale world units. */
+    public static final float positionScale = 4f;
+
+    /** Writes a zigzag-encoded variable-length int; values between -64 and 63 take one byte. */
+    public static void writeVarInt(Writes write, int value){
+        int bits = (value << 1) ^ (value >> 31);
+        while((bits & ~0x7F) != 0){
+            write.b((byte)((bits & 0x7F) | 0x80));
+            bits >>>= 7;
+        }
+        write.b((byte)bits);
+    }
+
+    public static int readVarInt(Reads read){
+        int bits = 0, shift = 0;
+        byte next;
+        do{
+            next = read.b();
+            bits |= (next & 0x7F) << shift;
+            shift += 7;
+        }while((next & 0x80) != 0 && shift < 35);
+        return (bits >>> 1) ^ -(bits & 1);
+    }
+
+    public static void writePosition(Writes write, float value){
+        writeVarInt(write, Math.round(value * positionScale));
+    }
+
+    public static float readPosition(Reads read){
+        return readVarInt(read) / positionScale;
+    }
+
+    public static void writeAngle(Writes write, float degrees){
+        write.s((short)Math.round(Mathf.mod(degrees, 360f) * 65536f / 360f));
+    }
+
+    public static float readAngle(Reads read){
+        return (read.s() & 0xFFFF) * 360f / 65536f;
+    }
+}
@@ -202,6 +202,12 @@ public abstract class SaveVersion extends SaveFileReader{
     }
 
     public void writeMap(DataOutput stream) throws IOException{
+        writeMapFloors(stream);
+        writeMapBlocks(stream);
+    }
+
+    /** Writes the world size, floors and overlays. These rarely change after the map has loaded. */
+    public void writeMapFloors(DataOutput stream) throws IOException{
         //write world size
         stream.writeShort(world.width());
         stream.writeShort(world.height());
@@ -226,8 +232,10 @@ public abstract class SaveVersion extends SaveFileReader{
             stream.writeByte(consecutives);
             i += consecutives;
         }
+    }
 
-        //blocks
+    /** Writes blocks and buildings. */
+    public void writeMapBlocks(DataOutput stream) throws IOException{
         for(int i = 0; i < world.width() * world.height(); i++){
             Tile tile = world.rawTile(i % world.width(), i / world.width());
             stream.writeShort(tile.blockID());
@@ -272,86 +280,104 @@ public abstract class SaveVersion extends SaveFileReader{
     }
 
     public void readMap(DataInput stream, WorldContext context) throws IOException{
-        int width = stream.readUnsignedShort();
-        int height = stream.readUnsignedShort();
+        readMap(stream, stream, context);
+    }
 
+    /** Reads a map that was written with {@link #writeMapFloors(DataOutput)} and {@link #writeMapBlocks(DataOutput)} to separate streams. */
+    public void readMap(DataInput floors, DataInput stream, WorldContext context) throws IOException{
         boolean generating = context.isGenerating();
 
         if(!generating) context.begin();
         try{
+            int size = readMapFloors(floors, context);
+            readMapBlocks(stream, context, size);
+        }finally{
+            if(!generating) context.end();
+        }
+    }
 
-            context.resize(width, height);
-
-            //read floor and create tiles first
-            for(int i = 0; i < width * height; i++){
-                int x = i % width, y = i / width;
-                short floorid = stream.readShort();
-                short oreid = stream.readShort();
-                int consecutives = stream.readUnsignedByte();
-                if(content.block(floorid) == Blocks.air) floorid = Blocks.stone.id;
+    /**
+     * Reads the world size and creates tiles with their floors and overlays. The context must already be generating.
+     * @return the number of tiles.
+     */
+    public int readMapFloors(DataInput floors, WorldContext context) throws IOException{
+        int width = floors.readUnsignedShort();
+        int height = floors.readUnsignedShort();
+
+        context.resize(width, height);
+
+        //read floor and create tiles first
+        for(int i = 0; i < width * height; i++){
+            int x = i % width, y = i / width;
+            short floorid = floors.readShort();
+            short oreid = floors.readShort();
+            int consecutives = floors.readUnsignedByte();
+            if(content.block(floorid) == Blocks.air) floorid = Blocks.stone.id;
+
+            context.create(x, y, floorid, oreid, (short)0);
+
+            for(int j = i + 1; j < i + 1 + consecutives; j++){
+                int newx = j % width, newy = j / width;
+                context.create(newx, newy, floorid, oreid, (short)0);
+            }
 
-                context.create(x, y, floorid, oreid, (short)0);
+            i += consecutives;
+        }
 
-                for(int j = i + 1; j < i + 1 + consecutives; j++){
-                    int newx = j % width, newy = j / width;
-                    context.create(newx, newy, floorid, oreid, (short)0);
-                }
+        return width * height;
+    }
 
-                i += consecutives;
+    /** Reads blocks and buildings into the tiles created by {@link #readMapFloors(DataInput, WorldContext)}. */
+    public void readMapBlocks(DataInput stream, WorldContext context, int size) throws IOException{
+        //read blocks
+        for(int i = 0; i < size; i++){
+            Block block = content.block(stream.readShort());
+            Tile tile = context.tile(i);
+            if(block == null) block = Blocks.air;
+            boolean isCenter = true;
+            byte packedCheck = stream.readByte();
+            boolean hadEntity = (packedCheck & 1) != 0;
+            boolean hadData = (packedCheck & 2) != 0;
+
+            if(hadEntity){
+                isCenter = stream.readBoolean();
             }
 
-            //read blocks
-            for(int i = 0; i < width * height; i++){
-                Block block = content.block(stream.readShort());
-                Tile tile = context.tile(i);
-                if(block == null) block = Blocks.air;
-                boolean isCenter = true;
-                byte packedCheck = stream.readByte();
-                boolean hadEntity = (packedCheck & 1) != 0;
-                boolean hadData = (packedCheck & 2) != 0;
-
-                if(hadEntity){
-                    isCenter = stream.readBoolean();
-                }
-
-                //set block only if this is the center; otherwise, it's handled elsewhere
-                if(isCenter){
-                    tile.setBlock(block);
-                }
+            //set block only if this is the center; otherwise, it's handled elsewhere
+            if(isCenter){
+                tile.setBlock(block);
+            }
 
-                if(hadEntity){
-                    if(isCenter){ //only read entity for center blocks
-                        if(block.hasBuilding()){
-                            try{
-                                readChunk(stream, true, in -> {
-                                    byte revision = in.readByte();
-                                    tile.build.readAll(Reads.get(in), revision);
-                                });
-                            }catch(Throwable e){
-                                throw new IOException("Failed to read tile entity of block: " + block, e);
-                            }
-                        }else{
-                            //skip the entity region, as the entity and its IO code are now gone
-                            skipChunk(stream, true);
+            if(hadEntity){
+                if(isCenter){ //only read entity for center blocks
+                    if(block.hasBuilding()){
+                        try{
+                            readChunk(stream, true, in -> {
+                                byte revision = in.readByte();
+                                tile.build.readAll(Reads.get(in), revision);
+                            });
+                        }catch(Throwable e){
+                            throw new IOException("Failed to read tile entity of block: " + block, e);
                         }
-
-                        context.onReadBuilding();
+                    }else{
+                        //skip the entity region, as the entity and its IO code are now gone
+                        skipChunk(stream, true);
                     }
-                }else if(hadData){
-                    tile.setBlock(block);
-                    tile.data = stream.readByte();
-                }else{
-                    int consecutives = stream.readUnsignedByte();
 
-                    for(int j = i + 1; j < i + 1 + consecutives; j++){
-                        context.tile(j).setBlock(block);
-                    }
+                    context.onReadBuilding();
+                }
+            }else if(hadData){
+                tile.setBlock(block);
+                tile.data = stream.readByte();
+            }else{
+                int consecutives = stream.readUnsignedByte();
 
-                    i += consecutives;
+                for(int j = i + 1; j < i + 1 + consecutives; j++){
+                    context.tile(j).setBlock(block);
                 }
+
+                i += consecutives;
             }
-        }finally{
-            if(!generating) context.end();
         }
     }
 
@@ -202,7 +202,7 @@ public class LExecutor{
                             }
                         }
                         case building -> {
-                            Building b = Geometry.findClosest(unit.x, unit.y, enemy.bool() ? indexer.getEnemy(unit.team, flag) : indexer.getFlagged(unit.team, flag));
+                            Building b = enemy.bool() ? indexer.findClosestEnemyFlag(unit.x, unit.y, unit.team, flag) : indexer.findClosestFlag(unit.x, unit.y, unit.team, flag);
                             res = b == null ? null : b.tile;
                             build = true;
                         }
@@ -27,8 +27,10 @@ public class Administration{
 
 
     private boolean modified, loaded;
-    /** All player info. Maps UUIDs to info. This persists throughout restarts. Do not modify directly. */
-    public ObjectMap<String, PlayerInfo> playerInfo = new ObjectMap<>();
+    /** Stores and indexes player info. Only info that may have changed is written on save. */
+    private final PlayerInfoStore infoStore = new PlayerInfoStore(Core.settings.getDataDirectory().child("player-data.bin"));
+    /** All player info. Maps UUIDs to info. This persists throughout restarts. Changes to this map are indexed and saved by the info store. */
+    public final ObjectMap<String, PlayerInfo> playerInfo = infoStore.byId;
 
     public Administration(){
         load();
@@ -196,8 +198,8 @@ public class Administration{
         info.lastName = name;
         info.lastIP = ip;
         info.timesJoined++;
-        if(!info.names.contains(name, false)) info.names.add(name);
-        if(!info.ips.contains(ip, false)) info.ips.add(ip);
+        infoStore.addName(info, name);
+        infoStore.addIP(info, ip);
     }
 
     public boolean banPlayer(String uuid){
@@ -212,10 +214,9 @@ public class Administration{
         if(bannedIPs.contains(ip, false))
             return false;
 
-        for(PlayerInfo info : playerInfo.values()){
-            if(info.ips.contains(ip, false)){
-                info.banned = true;
-            }
+        for(PlayerInfo info : infoStore.withIP(ip)){
+            info.banned = true;
+            infoStore.modified(info);
         }
 
         bannedIPs.add(ip);
@@ -243,11 +244,10 @@ public class Administration{
     public boolean unbanPlayerIP(String ip){
         boolean found = bannedIPs.contains(ip, false);
 
-        for(PlayerInfo info : playerInfo.values()){
-            if(info.ips.contains(ip, false)){
-                info.banned = false;
-                found = true;
-            }
+        for(PlayerInfo info : infoStore.withIP(ip)){
+            info.banned = false;
+            infoStore.modified(info);
+            found = true;
         }
 
         bannedIPs.remove(ip, false);
@@ -382,22 +382,28 @@ public class Administration{
     public ObjectSet<PlayerInfo> findByName(String name){
         ObjectSet<PlayerInfo> result = new ObjectSet<>();
 
-        for(PlayerInfo info : playerInfo.values()){
+        //the name index ignores case and colors, so the candidates are checked again
+        for(PlayerInfo info : infoStore.withName(name)){
             if(info.lastName.equalsIgnoreCase(name) || info.names.contains(name, false)
-            || Strings.stripColors(Strings.stripColors(info.lastName)).equals(name)
-            || info.ips.contains(name, false) || info.id.equals(name)){
+            || Strings.stripColors(Strings.stripColors(info.lastName)).equals(name)){
                 result.add(info);
             }
         }
 
+        result.addAll(infoStore.withIP(name));
+
+        PlayerInfo byId = infoStore.get(name);
+        if(byId != null) result.add(byId);
+
         return result;
     }
 
     /** Finds by name, using contains(). */
     public ObjectSet<PlayerInfo> searchNames(String name){
-        ObjectSet<PlayerInfo> result = new ObjectSet<>();
+        ObjectSet<PlayerInfo> candidates = new ObjectSet<>(), result = new ObjectSet<>();
+        infoStore.searchNames(name, candidates);
 
-        for(PlayerInfo info : playerInfo.values()){
+        for(PlayerInfo info : candidates){
             if(info.names.contains(n -> n.toLowerCase().contains(name.toLowerCase()) || Strings.stripColors(n).trim().toLowerCase().contains(name))){
                 result.add(info);
             }
@@ -407,15 +413,7 @@ public class Administration{
     }
 
     public Seq<PlayerInfo> findByIPs(String ip){
-        Seq<PlayerInfo> result = new Seq<>();
-
-        for(PlayerInfo info : playerInfo.values()){
-            if(info.ips.contains(ip, false)){
-                result.add(info);
-            }
-        }
-
-        return result;
+        return infoStore.withIP(ip).copy();
     }
 
     public PlayerInfo getInfo(String id){
@@ -423,16 +421,15 @@ public class Administration{
     }
 
     public PlayerInfo getInfoOptional(String id){
-        return playerInfo.get(id);
+        PlayerInfo info = infoStore.get(id);
+        //callers may change the info, so write it on the next save
+        if(info != null) infoStore.modified(info);
+        return info;
     }
 
     public PlayerInfo findByIP(String ip){
-        for(PlayerInfo info : playerInfo.values()){
-            if(info.ips.contains(ip, false)){
-                return info;
-            }
-        }
-        return null;
+        var infos = infoStore.withIP(ip);
+        return infos.isEmpty() ? null : infos.first();
     }
 
     public Seq<PlayerInfo> getWhitelisted(){
@@ -440,11 +437,14 @@ public class Administration{
     }
 
     private PlayerInfo getCreateInfo(String id){
-        if(playerInfo.containsKey(id)){
-            return playerInfo.get(id);
+        PlayerInfo info = infoStore.get(id);
+        if(info != null){
+            //info is changed directly by whoever gets it, so anything handed out is written on the next save
+            infoStore.modified(info);
+            return info;
         }else{
-            PlayerInfo info = new PlayerInfo(id);
-            playerInfo.put(id, info);
+            info = new PlayerInfo(id);
+            infoStore.add(info);
             save();
             return info;
         }
@@ -455,8 +455,11 @@ public class Administration{
     }
 
     public void forceSave(){
+        if(loaded){
+            infoStore.save();
+        }
+
         if(modified && loaded){
-            Core.settings.putJson("player-data", playerInfo);
             Core.settings.putJson("ip-kicks", kickedIPs);
             Core.settings.putJson("ip-bans", String.class, bannedIPs);
             Core.settings.putJson("whitelist-ids", String.class, whitelist);
@@ -469,7 +472,7 @@ public class Administration{
     private void load(){
         loaded = true;
         //load default data
-        playerInfo = Core.settings.getJson("player-data", ObjectMap.class, ObjectMap::new);
+        infoStore.load();
         kickedIPs = Core.settings.getJson("ip-kicks", ObjectMap.class, ObjectMap::new);
         bannedIPs = Core.settings.getJson("ip-bans", Seq.class, Seq::new);
         whitelist = Core.settings.getJson("whitelist-ids", Seq.class, Seq::new);
@@ -514,6 +517,7 @@ public class Administration{
         debug = new Config("debug", "Enable debug logging.", false, () -> Log.level = debug() ? LogLevel.debug : LogLevel.info),
         snapshotInterval = new Config("snapshotInterval", "Client entity snapshot interval in ms.", 200),
         autoPause = new Config("autoPause", "Whether the game should pause when nobody is online.", false),
+        netStatsInterval = new Config("netStatsInterval", "Interval between dumps of network statistics to logs/netstats.txt, in seconds. 0 to disable.", 0),
         roundExtraTime = new Config("roundExtraTime", "Time before loading a new map after the gameover, in seconds.", 12),
         maxLogLength = new Config("maxLogLength", "The Maximum log file size, in bytes.", 1024 * 1024 * 5);
 
@@ -61,7 +61,7 @@ public class ArcNetProvider implements NetProvider{
                 c.addressTCP = connection.getRemoteAddressTCP().getAddress().getHostAddress();
                 if(connection.getRemoteAddressTCP() != null) c.addressTCP = connection.getRemoteAddressTCP().toString();
 
-                Core.app.post(() -> net.handleClientReceived(c));
+                net.queueReceived(null, c);
             }
 
             @Override
@@ -72,21 +72,14 @@ public class ArcNetProvider implements NetProvider{
 
                 Disconnect c = new Disconnect();
                 c.reason = reason.toString();
-                Core.app.post(() -> net.handleClientReceived(c));
+                net.queueReceived(null, c);
             }
 
             @Override
             public void received(Connection connection, Object object){
                 if(!(object instanceof Packet p)) return;
 
-                Core.app.post(() -> {
-                    try{
-                        net.handleClientReceived(p);
-                    }catch(Throwable e){
-                        net.handleException(e);
-                    }
-                });
-
+                net.queueReceived(null, p);
             }
         });
 
@@ -121,7 +114,7 @@ public class ArcNetProvider implements NetProvider{
 
                 connection.setArbitraryData(kn);
                 connections.add(kn);
-                Core.app.post(() -> net.handleServerReceived(kn, c));
+                net.queueReceived(kn, c);
             }
 
             @Override
@@ -131,10 +124,7 @@ public class ArcNetProvider implements NetProvider{
                 Disconnect c = new Disconnect();
                 c.reason = reason.toString();
 
-                Core.app.post(() -> {
-                    net.handleServerReceived(k, c);
-                    connections.remove(k);
-                });
+                net.queueReceived(k, c, () -> connections.remove(k));
             }
 
             @Override
@@ -148,13 +138,9 @@ public class ArcNetProvider implements NetProvider{
                     return;
                 }
 
-                Core.app.post(() -> {
-                    try{
-                        net.handleServerReceived(k, pack);
-                    }catch(Throwable e){
-                        Log.err(e);
-                    }
-                });
+                //the packet was deserialized on this thread right before this call
+                NetStats.addReceived(k);
+                net.queueReceived(k, pack);
             }
         });
     }
@@ -366,6 +352,7 @@ public class ArcNetProvider implements NetProvider{
                 }else{
                     connection.sendUDP(object);
                 }
+                NetStats.addSent(this);
             }catch(Exception e){
                 Log.err(e);
                 Log.info("Error sending packet. Disconnecting invalid client!");
@@ -384,33 +371,18 @@ public class ArcNetProvider implements NetProvider{
     }
 
     public static class PacketSerializer implements NetSerializer{
-        //for debugging total read/write speeds
-        private static final boolean debug = false;
-
         ThreadLocal<ByteBuffer> decompressBuffer = Threads.local(() -> ByteBuffer.allocate(32768));
         ThreadLocal<Reads> reads = Threads.local(() -> new Reads(new ByteBufferInput(decompressBuffer.get())));
         ThreadLocal<Writes> writes = Threads.local(() -> new Writes(new ByteBufferOutput(decompressBuffer.get())));
 
-        //for debugging network write counts
-        static WindowedMean upload = new WindowedMean(5), download = new WindowedMean(5);
-        static long lastUpload, lastDownload, uploadAccum, downloadAccum;
-        static int lastPos;
-
         @Override
         public Object read(ByteBuffer byteBuffer){
-            if(debug){
-                if(Time.timeSinceMillis(lastDownload) >= 1000){
-                    lastDownload = Time.millis();
-                    download.add(downloadAccum);
-                    downloadAccum = 0;
-                    Log.info("Download: @ b/s", download.mean());
-                }
-                downloadAccum += byteBuffer.remaining();
-            }
-
+            int start = byteBuffer.position();
             byte id = byteBuffer.get();
             if(id == -2){
-                return readFramework(byteBuffer);
+                var message = readFramework(byteBuffer);
+                NetStats.received(-1, byteBuffer.position() - start, byteBuffer.position() - start);
+                return message;
             }else{
                 //read length int, followed by compressed lz4 data
                 Packet packet = Net.newPacket(id);
@@ -437,22 +409,24 @@ public class ArcNetProvider implements NetProvider{
                     byteBuffer.position(byteBuffer.position() + read);
                 }
 
+                NetStats.received(id & 0xff, length, byteBuffer.position() - start);
                 return packet;
             }
         }
 
         @Override
         public void write(ByteBuffer byteBuffer, Object o){
-            if(debug){
-                lastPos = byteBuffer.position();
-            }
+            int start = byteBuffer.position();
+            long time = System.nanoTime();
 
             //write raw buffer
             if(o instanceof ByteBuffer raw){
                 byteBuffer.put(raw);
+                NetStats.sent(-1, byteBuffer.position() - start, byteBuffer.position() - start, System.nanoTime() - time);
             }else if(o instanceof FrameworkMessage msg){
                 byteBuffer.put((byte)-2); //code for framework message
                 writeFramework(byteBuffer, msg);
+                NetStats.sent(-1, byteBuffer.position() - start, byteBuffer.position() - start, System.nanoTime() - time);
             }else{
                 if(!(o instanceof Packet pack)) throw new RuntimeException("All sent objects must extend Packet! Class: " + o.getClass());
                 byte id = Net.getPacketId(pack);
@@ -480,16 +454,8 @@ public class ArcNetProvider implements NetProvider{
                     //skip to indicate the written, compressed data
                     byteBuffer.position(byteBuffer.position() + written);
                 }
-            }
 
-            if(debug){
-                if(Time.timeSinceMillis(lastUpload) >= 1000){
-                    lastUpload = Time.millis();
-                    upload.add(uploadAccum);
-                    uploadAccum = 0;
-                    Log.info("Upload: @ b/s", upload.mean());
-                }
-                uploadAccum += byteBuffer.position() - lastPos;
+                NetStats.sent(id & 0xff, length & 0xffff, byteBuffer.position() - start, System.nanoTime() - time);
             }
         }
 
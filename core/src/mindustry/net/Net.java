@@ -32,7 +32,10 @@ public class Net{
     private @Nullable StreamBuilder currentStream;
 
     private final Seq<Packet> packetQueue = new Seq<>();
+    /** Packets received on network threads, waiting to be handled on the main thread. */
+    private final ConcurrentLinkedQueue<Inbound> inbound = new ConcurrentLinkedQueue<>();
     private final ObjectMap<Class<?>, Cons> clientListeners = new ObjectMap<>();
+    private final ObjectMap<Class<?>, Cons<StreamBuilder>> clientStreamListeners = new ObjectMap<>();
     private final ObjectMap<Class<?>, Cons2<NetConnection, Object>> serverListeners = new ObjectMap<>();
     private final IntMap<StreamBuilder> streams = new IntMap<>();
     private final ExecutorService pingExecutor = OS.isWindows && !OS.is64Bit ? Threads.boundedExecutor("Ping Servers", 5) : Threads.unboundedExecutor();
@@ -63,6 +66,11 @@ public class Net{
         return (byte)id;
     }
 
+    /** @return the packet class registered with this ID, or null if there is none. */
+    public static @Nullable Class<? extends Packet> getPacketClass(int id){
+        return id >= 0 && id < packetClasses.size ? packetClasses.get(id) : null;
+    }
+
     public static <T extends Packet> T newPacket(byte id){
         return ((Prov<T>)packetProvs.get(id & 0xff)).get();
     }
@@ -138,7 +146,12 @@ public class Net{
         if(loaded){
             //handle all packets that were skipped while loading
             for(int i = 0; i < packetQueue.size; i++){
-                handleClientReceived(packetQueue.get(i));
+                Packet packet = packetQueue.get(i);
+                //decode now, as tiles, buildings and units in the packet could not be resolved before the world had loaded
+                if(!packet.isPure()){
+                    packet.handled();
+                }
+                dispatchClient(packet);
             }
         }
         //clear inbound packet queue
@@ -252,6 +265,14 @@ public class Net{
         clientListeners.put(type, listener);
     }
 
+    /**
+     * Registers a client listener that is called every time a chunk of a stream of this type arrives, before the stream is complete.
+     * The finished stream is still handled by the listener registered with {@link #handleClient(Class, Cons)}.
+     */
+    public <T extends Streamable> void handleClientStream(Class<T> type, Cons<StreamBuilder> listener){
+        clientStreamListeners.put(type, listener);
+    }
+
     /**
      * Registers a server listener for when an object is received.
      */
@@ -259,12 +280,67 @@ public class Net{
         serverListeners.put(type, (Cons2<NetConnection, Object>)listener);
     }
 
+    /**
+     * Queues a packet that was received on a network thread. Packets that only contain plain data are decoded right away;
+     * all packets are handled in order on the main thread by {@link #handleQueued()}.
+     * @param connection the connection the packet came from, or null if it was received by the client.
+     * @param after code to run on the main thread once the packet has been handled.
+     */
+    public void queueReceived(@Nullable NetConnection connection, Packet packet, @Nullable Runnable after){
+        boolean decoded = false;
+        if(packet.isPure()){
+            try{
+                packet.handled();
+                decoded = true;
+            }catch(Throwable e){
+                //decode again on the main thread, so the error is reported in the same place as usual
+            }
+        }
+        inbound.add(new Inbound(connection, packet, decoded, after));
+    }
+
+    public void queueReceived(@Nullable NetConnection connection, Packet packet){
+        queueReceived(connection, packet, null);
+    }
+
+    /** Handles all packets queued by network threads in one pass. Must be called on the main thread. */
+    public void handleQueued(){
+        Inbound next;
+        while((next = inbound.poll()) != null){
+            try{
+                //client packets that are queued until the world has loaded are decoded once they are handled
+                if(!next.decoded && (next.connection != null || clientLoaded || next.packet.getPriority() == Packet.priorityHigh)){
+                    next.packet.handled();
+                }
+
+                if(next.connection != null){
+                    dispatchServer(next.connection, next.packet);
+                }else{
+                    dispatchClient(next.packet);
+                }
+            }catch(Throwable e){
+                if(next.connection != null){
+                    Log.err(e);
+                }else{
+                    handleException(e);
+                }
+            }
+
+            if(next.after != null){
+                next.after.run();
+            }
+        }
+    }
+
     /**
      * Call to handle a packet being received for the client.
      */
     public void handleClientReceived(Packet object){
         object.handled();
+        dispatchClient(object);
+    }
 
+    private void dispatchClient(Packet object){
         if(object instanceof StreamBegin b){
             streams.put(b.id, currentStream = new StreamBuilder(b));
 
@@ -275,6 +351,11 @@ public class Net{
             }
             builder.add(c.data);
 
+            var listener = clientStreamListeners.get(getPacketClass(builder.type & 0xff));
+            if(listener != null){
+                listener.get(builder);
+            }
+
             ui.loadfrag.setProgress(builder.progress());
             ui.loadfrag.snapProgress();
             netClient.resetTimeout();
@@ -304,6 +385,11 @@ public class Net{
      */
     public void handleServerReceived(NetConnection connection, Packet object){
         object.handled();
+        dispatchServer(connection, object);
+    }
+
+    private void dispatchServer(NetConnection connection, Packet object){
+        connection.packetsReceived ++;
 
         try{
             //handle object normally
@@ -416,4 +502,18 @@ public class Net{
             return null;
         }
     }
+
+    private static class Inbound{
+        final @Nullable NetConnection connection;
+        final Packet packet;
+        final boolean decoded;
+        final @Nullable Runnable after;
+
+        Inbound(@Nullable NetConnection connection, Packet packet, boolean decoded, @Nullable Runnable after){
+            this.connection = connection;
+            this.packet = packet;
+            this.decoded = decoded;
+            this.after = after;
+        }
+    }
 }
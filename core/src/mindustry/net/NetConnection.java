@@ -1,5 +1,6 @@
 package mindustry.net;
 
+import arc.math.*;
 import arc.struct.*;
 import arc.util.*;
 import mindustry.entities.units.*;
@@ -26,12 +27,22 @@ public abstract class NetConnection{
     public int snapshotsSent;
     /** Timestamp of last received snapshot. */
     public long lastReceivedClientTime;
+    /** Smoothed time between client snapshots in ms, and the smoothed fraction of client snapshots that never arrived. */
+    public float clientSnapshotDelta, clientSnapshotLoss;
+    /** Current entity snapshot interval in ms. This is raised above the configured interval while the connection appears congested. */
+    public int snapshotInterval;
+    /** Rotating start index for entities that are sent in turns while this connection is throttled. */
+    public int snapshotOffset;
     /** Build requests that have been recently rejected. This is cleared every snapshot. */
     public Seq<BuildPlan> rejectedRequests = new Seq<>();
     /** Handles chat spam rate limits. */
     public Ratekeeper chatRate = new Ratekeeper();
     /** Handles packet spam rate limits. */
     public Ratekeeper packetRate = new Ratekeeper();
+    /** Traffic sent to and received from this connection. Bytes are on the wire, after compression; raw bytes are the packet payloads before it. */
+    public long packetsSent, bytesSent, rawBytesSent, packetsReceived, bytesReceived, rawBytesReceived;
+    /** Total time spent serializing packets for this connection, in nanoseconds. */
+    public long serializeNanos;
 
     public boolean hasConnected, hasBegunConnecting, hasDisconnected;
     public float viewWidth, viewHeight, viewX, viewY;
@@ -40,6 +51,33 @@ public abstract class NetConnection{
         this.address = address;
     }
 
+    /** Updates the connection quality estimate with a client snapshot that has just arrived. Must be called before the last snapshot fields are updated. */
+    public void updateQuality(int snapshotID){
+        if(lastReceivedClientSnapshot >= 0 && lastReceivedClientTime > 0){
+            int missed = Math.max(snapshotID - lastReceivedClientSnapshot - 1, 0);
+            clientSnapshotLoss = Mathf.lerp(clientSnapshotLoss, missed / (missed + 1f), 0.1f);
+            clientSnapshotDelta = Mathf.lerp(clientSnapshotDelta, Time.timeSinceMillis(lastReceivedClientTime), 0.1f);
+        }
+    }
+
+    /**
+     * Adapts the snapshot interval of this connection. Clients normally send snapshots about 15 times a second,
+     * so snapshots that arrive late or not at all mean that the connection is congested, and the server backs off.
+     * @param base the configured snapshot interval.
+     */
+    public void updateSnapshotInterval(int base){
+        if(clientSnapshotLoss > 0.1f || clientSnapshotDelta > 250f){
+            snapshotInterval = Math.min(Math.max(snapshotInterval, base) + Math.max(base / 4, 1), base * 5);
+        }else{
+            snapshotInterval = Math.max(snapshotInterval - Math.max(base / 20, 1), base);
+        }
+    }
+
+    /** @return whether this connection is receiving snapshots less often than configured. */
+    public boolean isThrottled(int base){
+        return snapshotInterval > base;
+    }
+
     /** Kick with the standard kick reason. */
     public void kick(){
         kick(KickReason.kick);
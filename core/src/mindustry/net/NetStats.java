@@ -0,0 +1,152 @@
+package mindustry.net;
+
+import arc.struct.*;
+import arc.util.*;
+import mindustry.*;
+import mindustry.net.Administration.*;
+
+import java.util.concurrent.atomic.*;
+
+/**
+ * Traffic counters for each packet type. Packets are serialized on network threads, so all counters are atomic.
+ * Uncompressed sizes are the packet payloads; wire sizes include the packet header and LZ4 compression.
+ */
+public class NetStats{
+    /** Packet type IDs are bytes. Raw buffers and framework messages are counted under {@link #otherId}. */
+    private static final int types = 257, otherId = 256;
+
+    private static final AtomicLongArray
+    sentCount = new AtomicLongArray(types), sentBytes = new AtomicLongArray(types), sentWireBytes = new AtomicLongArray(types), sentNanos = new AtomicLongArray(types),
+    receivedCount = new AtomicLongArray(types), receivedBytes = new AtomicLongArray(types), receivedWireBytes = new AtomicLongArray(types);
+
+    /** Uncompressed size, wire size and serialize time of the last packet written on each thread, and the sizes of the last packet read. */
+    private static final ThreadLocal<long[]> lastWrite = Threads.local(() -> new long[3]), lastRead = Threads.local(() -> new long[2]);
+    private static volatile long startTime = Time.millis();
+
+    /** Records a written packet. A negative ID is counted as a framework message or raw buffer. */
+    public static void sent(int id, int bytes, int wireBytes, long nanos){
+        int index = index(id);
+        sentCount.incrementAndGet(index);
+        sentBytes.addAndGet(index, bytes);
+        sentWireBytes.addAndGet(index, wireBytes);
+        sentNanos.addAndGet(index, nanos);
+
+        long[] last = lastWrite.get();
+        last[0] = bytes;
+        last[1] = wireBytes;
+        last[2] = nanos;
+    }
+
+    /** Records a read packet. A negative ID is counted as a framework message. */
+    public static void received(int id, int bytes, int wireBytes){
+        int index = index(id);
+        receivedCount.incrementAndGet(index);
+        receivedBytes.addAndGet(index, bytes);
+        receivedWireBytes.addAndGet(index, wireBytes);
+
+        long[] last = lastRead.get();
+        last[0] = bytes;
+        last[1] = wireBytes;
+    }
+
+    /** Adds the last packet serialized on this thread to the sent traffic of a connection. */
+    public static void addSent(NetConnection con){
+        long[] last = lastWrite.get();
+        con.packetsSent ++;
+        con.rawBytesSent += last[0];
+        con.bytesSent += last[1];
+        con.serializeNanos += last[2];
+    }
+
+    /** Adds the last packet read on this thread to the received traffic of a connection. */
+    public static void addReceived(NetConnection con){
+        long[] last = lastRead.get();
+        con.rawBytesReceived += last[0];
+        con.bytesReceived += last[1];
+    }
+
+    public static void reset(){
+        for(int i = 0; i < types; i++){
+            sentCount.set(i, 0);
+            sentBytes.set(i, 0);
+            sentWireBytes.set(i, 0);
+            sentNanos.set(i, 0);
+            receivedCount.set(i, 0);
+            receivedBytes.set(i, 0);
+            receivedWireBytes.set(i, 0);
+        }
+        startTime = Time.millis();
+    }
+
+    /** @return a table of traffic per packet type since the last reset, sorted by total wire size. */
+    public static String report(){
+        float seconds = Math.max(Time.timeSinceMillis(startTime) / 1000f, 0.001f);
+        IntSeq order = new IntSeq();
+        long totalSent = 0, totalReceived = 0;
+
+        for(int i = 0; i < types; i++){
+            if(sentCount.get(i) > 0 || receivedCount.get(i) > 0){
+                order.add(i);
+                totalSent += sentWireBytes.get(i);
+                totalReceived += receivedWireBytes.get(i);
+            }
+        }
+
+        //insertion sort, there are at most a few hundred types
+        for(int i = 1; i < order.size; i++){
+            int value = order.get(i), j = i - 1;
+            while(j >= 0 && wireTotal(order.get(j)) < wireTotal(value)){
+                order.set(j + 1, order.get(j));
+                j --;
+            }
+            order.set(j + 1, value);
+        }
+
+        StringBuilder out = new StringBuilder();
+        out.append(Strings.format("Network traffic over @s: @ KB/s up, @ KB/s down\n", (int)seconds, Strings.fixed(totalSent / 1024f / seconds, 2), Strings.fixed(totalReceived / 1024f / seconds, 2)));
+        out.append("type | sent: count, bytes, wire bytes, avg serialize us | received: count, bytes, wire bytes\n");
+
+        for(int k = 0; k < order.size; k++){
+            int i = order.get(k);
+            long count = sentCount.get(i);
+            out.append(Strings.format("@ | @, @, @, @ | @, @, @\n",
+                name(i),
+                count, sentBytes.get(i), sentWireBytes.get(i), count == 0 ? "0" : Strings.fixed(sentNanos.get(i) / 1000f / count, 2),
+                receivedCount.get(i), receivedBytes.get(i), receivedWireBytes.get(i)
+            ));
+        }
+
+        return out.toString();
+    }
+
+    /** @return a table of traffic per connection since each connected. */
+    public static String connectionReport(){
+        StringBuilder out = new StringBuilder();
+        out.append("connection | sent: count, bytes, wire bytes, avg serialize us | received: count, bytes, wire bytes | snapshot interval\n");
+
+        for(NetConnection con : Vars.net.getConnections()){
+            out.append(Strings.format("@ (@) | @, @, @, @ | @, @, @ | @ms\n",
+                con.address, con.player == null ? "connecting" : con.player.plainName(),
+                con.packetsSent, con.rawBytesSent, con.bytesSent, con.packetsSent == 0 ? "0" : Strings.fixed(con.serializeNanos / 1000f / con.packetsSent, 2),
+                con.packetsReceived, con.rawBytesReceived, con.bytesReceived,
+                Math.max(con.snapshotInterval, Config.snapshotInterval.num())
+            ));
+        }
+
+        return out.toString();
+    }
+
+    private static long wireTotal(int index){
+        return sentWireBytes.get(index) + receivedWireBytes.get(index);
+    }
+
+    private static String name(int index){
+        if(index == otherId) return "framework";
+        var type = Net.getPacketClass(index);
+        return type == null ? "unknown-" + index : type.getSimpleName();
+    }
+
+    private static int index(int id){
+        return id < 0 ? otherId : id & 0xff;
+    }
+}
@@ -16,12 +16,47 @@ import mindustry.type.*;
 import java.io.*;
 import java.nio.*;
 import java.util.*;
+import java.util.zip.*;
 
 import static mindustry.Vars.*;
 
 public class NetworkIO{
 
-    public static void writeWorld(Player player, OutputStream os){
+    /**
+     * Writes the part of the world data that is specific to one player. This is sent uncompressed, in front of the data from {@link #writeWorldStatic(OutputStream)}.
+     * @return the player ID, the length of the player data, and the player data itself.
+     */
+    public static byte[] writeWorldPlayer(Player player){
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        player.write(new Writes(new DataOutputStream(data)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.size() + 8);
+        try(DataOutputStream stream = new DataOutputStream(out)){
+            stream.writeInt(player.id);
+            stream.writeInt(data.size());
+            data.writeTo(stream);
+        }catch(IOException e){
+            throw new RuntimeException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Writes the content header, floors and overlays. These only change when the map does, so the compressed result can be shared by every joining player.
+     * It is sent with its length after the player data, followed by the compressed output of {@link #writeWorld(OutputStream)}.
+     */
+    public static void writeWorldStatic(OutputStream os){
+
+        try(DataOutputStream stream = new DataOutputStream(os)){
+            SaveIO.getSaveWriter().writeContentHeader(stream);
+            SaveIO.getSaveWriter().writeMapFloors(stream);
+        }catch(IOException e){
+            throw new RuntimeException(e);
+        }
+    }
+
+    /** Writes the rest of the world data, which has to be written at the moment the player joins. */
+    public static void writeWorld(OutputStream os){
 
         try(DataOutputStream stream = new DataOutputStream(os)){
             //write all researched content to rules if hosting
@@ -46,11 +81,7 @@ public class NetworkIO{
             stream.writeLong(GlobalVars.rand.seed0);
             stream.writeLong(GlobalVars.rand.seed1);
 
-            stream.writeInt(player.id);
-            player.write(new Writes(stream));
-
-            SaveIO.getSaveWriter().writeContentHeader(stream);
-            SaveIO.getSaveWriter().writeMap(stream);
+            SaveIO.getSaveWriter().writeMapBlocks(stream);
             SaveIO.getSaveWriter().writeTeamBlocks(stream);
             SaveIO.getSaveWriter().writeMarkers(stream);
             SaveIO.getSaveWriter().writeCustomChunks(stream, true);
@@ -59,9 +90,62 @@ public class NetworkIO{
         }
     }
 
+    /**
+     * Reads the content header, floors and overlays from the start of partially received world data, if they have arrived completely.
+     * This begins loading the world, which {@link #loadWorld(InputStream, boolean)} finishes once the rest of the data has arrived.
+     * @param data the world data received so far, of which only the first {@code size} bytes are valid.
+     * @return whether the static part of the world has been read.
+     */
+    public static boolean loadWorldStatic(byte[] data, int size){
+        if(size < 8) return false;
+
+        ByteBuffer buffer = ByteBuffer.wrap(data, 0, size);
+        int offset = 8 + buffer.getInt(4);
+        if(size < offset + 4) return false;
+
+        int length = buffer.getInt(offset);
+        if(size < offset + 4 + length) return false;
+
+        try{
+            readWorldStatic(new ByteArrayInputStream(data, offset + 4, length));
+        }catch(IOException e){
+            content.setTemporaryMapper(null);
+            throw new RuntimeException(e);
+        }
+        return true;
+    }
+
+    private static void readWorldStatic(InputStream is) throws IOException{
+        DataInputStream stream = new DataInputStream(new InflaterInputStream(is));
+        world.context.begin();
+        SaveIO.getSaveWriter().readContentHeader(stream);
+        SaveIO.getSaveWriter().readMapFloors(stream, world.context);
+    }
+
     public static void loadWorld(InputStream is){
+        loadWorld(is, false);
+    }
+
+    /**
+     * Loads world data, as written by {@link #writeWorldPlayer(Player)} followed by the compressed output of {@link #writeWorldStatic(OutputStream)} and {@link #writeWorld(OutputStream)}.
+     * @param staticLoaded whether the static part has already been read by {@link #loadWorldStatic(byte[], int)}.
+     */
+    public static void loadWorld(InputStream is, boolean staticLoaded){
+
+        try(DataInputStream input = new DataInputStream(is); DataInputStream stream = new DataInputStream(new InflaterInputStream(input))){
+            int id = input.readInt();
+            byte[] playerData = new byte[input.readInt()];
+            input.readFully(playerData);
+
+            int staticLength = input.readInt();
+            if(staticLoaded){
+                input.skipBytes(staticLength);
+            }else{
+                byte[] staticData = new byte[staticLength];
+                input.readFully(staticData);
+                readWorldStatic(new ByteArrayInputStream(staticData));
+            }
 
-        try(DataInputStream stream = new DataInputStream(is)){
             Time.clear();
             state.rules = JsonIO.read(Rules.class, stream.readUTF());
             state.mapLocales = JsonIO.read(MapLocales.class, stream.readUTF());
@@ -73,17 +157,17 @@ public class NetworkIO{
             GlobalVars.rand.seed0 = stream.readLong();
             GlobalVars.rand.seed1 = stream.readLong();
 
-            Reads read = new Reads(stream);
-
             Groups.clear();
-            int id = stream.readInt();
             player.reset();
-            player.read(read);
+            player.read(new Reads(new DataInputStream(new ByteArrayInputStream(playerData))));
             player.id = id;
             player.add();
 
-            SaveIO.getSaveWriter().readContentHeader(stream);
-            SaveIO.getSaveWriter().readMap(stream, world.context);
+            try{
+                SaveIO.getSaveWriter().readMapBlocks(stream, world.context, world.width() * world.height());
+            }finally{
+                world.context.end();
+            }
             SaveIO.getSaveWriter().readTeamBlocks(stream);
             SaveIO.getSaveWriter().readMarkers(stream);
             SaveIO.getSaveWriter().readCustomChunks(stream);
@@ -1,5 +1,6 @@
 package mindustry.net;
 
+import arc.util.*;
 import arc.util.io.*;
 
 import java.io.*;
@@ -10,6 +11,9 @@ public abstract class Packet{
     protected static final ReusableByteInStream BAIS = new ReusableByteInStream();
     protected static final Reads READ = new Reads(new DataInputStream(BAIS));
 
+    private static final ThreadLocal<ReusableByteInStream> localInput = Threads.local(ReusableByteInStream::new);
+    private static final ThreadLocal<Reads> localRead = Threads.local(() -> new Reads(new DataInputStream(localInput.get())));
+
     //these are constants because I don't want to bother making an enum to mirror the annotation enum
 
     /** Does not get handled unless client is connected. */
@@ -28,6 +32,20 @@ public abstract class Packet{
 
     public void handled(){}
 
+    /**
+     * @return whether this packet only contains plain data, so that {@link #handled()} can decode it on a network thread.
+     * Handling it still happens on the main thread.
+     */
+    public boolean isPure(){
+        return false;
+    }
+
+    /** @return a reader over this data, local to the current thread. Used by generated code. */
+    protected static Reads reader(byte[] data){
+        localInput.get().setBytes(data);
+        return localRead.get();
+    }
+
     public int getPriority(){
         return priorityNormal;
     }
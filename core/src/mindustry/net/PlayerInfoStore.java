@@ -0,0 +1,309 @@
+package mindustry.net;
+
+import arc.*;
+import arc.files.*;
+import arc.struct.*;
+import arc.util.*;
+import mindustry.net.Administration.*;
+
+import java.io.*;
+
+/**
+ * Persistent store of player info, indexed by UUID, IP and name.
+ * Info that may have changed is appended to a log file on save instead of rewriting every entry; later records replace earlier ones.
+ * The log is rewritten with one record per player when it gets too large.
+ */
+public class PlayerInfoStore{
+    private static final int version = 1;
+    /** Old settings key that all player info was serialized to as JSON. */
+    private static final String legacyKey = "player-data";
+    private static final Seq<PlayerInfo> empty = new Seq<>();
+
+    private final Fi file;
+    /** Maps UUIDs to info. Changes made to this map directly also update the indexes and are saved. */
+    final ObjectMap<String, PlayerInfo> byId = new ObjectMap<>(){
+        @Override
+        public PlayerInfo put(String key, PlayerInfo value){
+            PlayerInfo last = super.put(key, value);
+            if(last != null && last != value) unindex(last);
+            index(value);
+            dirty.add(value);
+            return last;
+        }
+
+        @Override
+        public PlayerInfo remove(String key){
+            PlayerInfo last = super.remove(key);
+            if(last != null){
+                unindex(last);
+                dirty.remove(last);
+                removed = true;
+            }
+            return last;
+        }
+
+        @Override
+        public void clear(){
+            super.clear();
+            byIP.clear();
+            byName.clear();
+            dirty.clear();
+            removed = true;
+        }
+    };
+    /** Maps IPs to all players that have used them. */
+    private final ObjectMap<String, Seq<PlayerInfo>> byIP = new ObjectMap<>();
+    /** Maps names to all players that have used them, both lowercase as-is and lowercase without colors. */
+    private final ObjectMap<String, Seq<PlayerInfo>> byName = new ObjectMap<>();
+    /** Info that has been handed out or changed since the last save. */
+    private final ObjectSet<PlayerInfo> dirty = new ObjectSet<>();
+    /** Amount of records in the log file. */
+    private int records;
+    /** Whether info was removed since the last save. The log can only add records, so it has to be rewritten. */
+    private boolean removed;
+
+    public PlayerInfoStore(Fi file){
+        this.file = file;
+    }
+
+    public @Nullable PlayerInfo get(String id){
+        return byId.get(id);
+    }
+
+    public int size(){
+        return byId.size;
+    }
+
+    public Iterable<PlayerInfo> all(){
+        return byId.values();
+    }
+
+    public void add(PlayerInfo info){
+        byId.put(info.id, info);
+    }
+
+    /** Marks this info as possibly modified, so that it is written on the next save. */
+    public void modified(PlayerInfo info){
+        dirty.add(info);
+    }
+
+    /** Adds an IP to the info and the index. */
+    public void addIP(PlayerInfo info, String ip){
+        if(!info.ips.contains(ip, false)){
+            info.ips.add(ip);
+            indexIP(info, ip);
+        }
+        dirty.add(info);
+    }
+
+    /** Adds a name to the info and the index. */
+    public void addName(PlayerInfo info, String name){
+        if(!info.names.contains(name, false)){
+            info.names.add(name);
+        }
+        indexName(info, name);
+        dirty.add(info);
+    }
+
+    /** @return all players that have used this IP. Do not modify. */
+    public Seq<PlayerInfo> withIP(String ip){
+        return byIP.get(ip, empty);
+    }
+
+    /** @return players that have used a name that is equal to this one, ignoring case and colors. Do not modify. */
+    public Seq<PlayerInfo> withName(String name){
+        return byName.get(name.toLowerCase(), empty);
+    }
+
+    /** Adds every player that has used a name containing this text, ignoring case and colors, to the set. */
+    public void searchNames(String text, ObjectSet<PlayerInfo> out){
+        String lower = text.toLowerCase();
+        for(var entry : byName){
+            if(entry.key.contains(lower)){
+                out.addAll(entry.value);
+            }
+        }
+    }
+
+    /** Appends all info that may have changed to the log, and compacts the log if most of it is outdated. */
+    public void save(){
+        if(dirty.isEmpty() && !removed) return;
+
+        if(removed || records + dirty.size > byId.size * 2 + 1000){
+            compact();
+            return;
+        }
+
+        boolean header = !file.exists();
+        try(DataOutputStream out = new DataOutputStream(file.write(true, 8192))){
+            if(header) out.writeInt(version);
+            for(PlayerInfo info : dirty){
+                write(out, info);
+            }
+            records += dirty.size;
+            dirty.clear();
+        }catch(IOException e){
+            Log.err("Failed to save player info", e);
+        }
+    }
+
+    /** Rewrites the log with one record per player. */
+    public void compact(){
+        Fi temp = file.sibling(file.name() + ".tmp");
+        try(DataOutputStream out = new DataOutputStream(temp.write(false, 8192))){
+            out.writeInt(version);
+            for(PlayerInfo info : byId.values()){
+                write(out, info);
+            }
+        }catch(IOException e){
+            Log.err("Failed to save player info", e);
+            return;
+        }
+
+        temp.moveTo(file);
+        records = byId.size;
+        dirty.clear();
+        removed = false;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void load(){
+        byId.clear();
+        removed = false;
+        records = 0;
+
+        if(!file.exists()){
+            //move info from the settings, where every save used to serialize all of it
+            ObjectMap<String, PlayerInfo> legacy = Core.settings.getJson(legacyKey, ObjectMap.class, ObjectMap::new);
+            for(var info : legacy.values()){
+                byId.put(info.id, info);
+            }
+            if(legacy.size > 0){
+                compact();
+                Core.settings.remove(legacyKey);
+            }
+            return;
+        }
+
+        boolean truncated = false;
+
+        try(DataInputStream in = new DataInputStream(file.read(8192))){
+            int ver = in.readInt();
+            if(ver != version) throw new IOException("Unknown player info version: " + ver);
+
+            while(in.available() > 0){
+                PlayerInfo info;
+                try{
+                    info = read(in);
+                }catch(EOFException e){
+                    //the last record was cut off while it was being written
+                    truncated = true;
+                    break;
+                }
+
+                byId.put(info.id, info);
+                records ++;
+            }
+        }catch(IOException e){
+            Log.err("Failed to load player info", e);
+        }
+
+        //everything that was read is already in the log
+        dirty.clear();
+
+        //records appended after a partial one could not be read back
+        if(truncated){
+            Log.warn("Player info file ended with an incomplete record; rewriting it.");
+            compact();
+        }
+    }
+
+    private void index(PlayerInfo info){
+        for(String ip : info.ips){
+            indexIP(info, ip);
+        }
+        for(String name : info.names){
+            indexName(info, name);
+        }
+        indexName(info, info.lastName);
+    }
+
+    private void unindex(PlayerInfo info){
+        for(String ip : info.ips){
+            remove(byIP, ip, info);
+        }
+        for(String name : info.names){
+            remove(byName, name.toLowerCase(), info);
+            remove(byName, Strings.stripColors(name).toLowerCase(), info);
+        }
+        remove(byName, info.lastName.toLowerCase(), info);
+        remove(byName, Strings.stripColors(info.lastName).toLowerCase(), info);
+    }
+
+    private void indexIP(PlayerInfo info, String ip){
+        put(byIP, ip, info);
+    }
+
+    private void indexName(PlayerInfo info, String name){
+        put(byName, name.toLowerCase(), info);
+        put(byName, Strings.stripColors(name).toLowerCase(), info);
+    }
+
+    private static void put(ObjectMap<String, Seq<PlayerInfo>> map, String key, PlayerInfo info){
+        var seq = map.get(key);
+        if(seq == null){
+            map.put(key, seq = new Seq<>(false, 1));
+        }
+        if(!seq.contains(info, true)) seq.add(info);
+    }
+
+    private static void remove(ObjectMap<String, Seq<PlayerInfo>> map, String key, PlayerInfo info){
+        var seq = map.get(key);
+        if(seq != null && seq.remove(info, true) && seq.isEmpty()){
+            map.remove(key);
+        }
+    }
+
+    private static void write(DataOutputStream out, PlayerInfo info) throws IOException{
+        out.writeUTF(info.id);
+        out.writeUTF(info.lastName);
+        out.writeUTF(info.lastIP);
+        out.writeShort(info.ips.size);
+        for(String ip : info.ips){
+            out.writeUTF(ip);
+        }
+        out.writeShort(info.names.size);
+        for(String name : info.names){
+            out.writeUTF(name);
+        }
+        out.writeBoolean(info.adminUsid != null);
+        if(info.adminUsid != null) out.writeUTF(info.adminUsid);
+        out.writeInt(info.timesKicked);
+        out.writeInt(info.timesJoined);
+        out.writeBoolean(info.banned);
+        out.writeBoolean(info.admin);
+        out.writeLong(info.lastKicked);
+    }
+
+    private static PlayerInfo read(DataInputStream in) throws IOException{
+        PlayerInfo info = new PlayerInfo();
+        info.id = in.readUTF();
+        info.lastName = in.readUTF();
+        info.lastIP = in.readUTF();
+        int ips = in.readUnsignedShort();
+        for(int i = 0; i < ips; i++){
+            info.ips.add(in.readUTF());
+        }
+        int names = in.readUnsignedShort();
+        for(int i = 0; i < names; i++){
+            info.names.add(in.readUTF());
+        }
+        if(in.readBoolean()) info.adminUsid = in.readUTF();
+        info.timesKicked = in.readInt();
+        info.timesJoined = in.readInt();
+        info.banned = in.readBoolean();
+        info.admin = in.readBoolean();
+        info.lastKicked = in.readLong();
+        return info;
+    }
+}
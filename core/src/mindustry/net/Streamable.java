@@ -3,6 +3,7 @@ package mindustry.net;
 import mindustry.net.Packets.*;
 
 import java.io.*;
+import java.util.*;
 
 public class Streamable extends Packet{
     public transient ByteArrayInputStream stream;
@@ -12,38 +13,56 @@ public class Streamable extends Packet{
         return priorityHigh;
     }
 
+    /** Collects stream chunks directly into one array of the announced size, which the built packet reads from without copying. */
     public static class StreamBuilder{
+        /** Streams announcing more than this are not trusted to be that large up front; their buffer grows as data arrives instead. */
+        private static final int maxInitialSize = 1024 * 1024 * 16;
+
         public final int id;
         public final byte type;
         public final int total;
-        public final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+
+        private byte[] data;
+        private int size;
 
         public StreamBuilder(StreamBegin begin){
             id = begin.id;
             type = begin.type;
             total = begin.total;
+            data = new byte[Math.max(Math.min(total, maxInitialSize), 0)];
         }
 
         public float progress(){
-            return (float)stream.size() / total;
+            return total <= 0 ? 1f : (float)size / total;
         }
 
         public void add(byte[] bytes){
-            try{
-                stream.write(bytes);
-            }catch(IOException e){
-                throw new RuntimeException(e);
+            if(size + bytes.length > data.length){
+                data = Arrays.copyOf(data, Math.max(size + bytes.length, data.length * 2));
             }
+            System.arraycopy(bytes, 0, data, size, bytes.length);
+            size += bytes.length;
         }
 
         public Streamable build(){
             Streamable s = Net.newPacket(type);
-            s.stream = new ByteArrayInputStream(stream.toByteArray());
+            s.stream = new ByteArrayInputStream(data, 0, size);
+            data = null;
             return s;
         }
 
+        /** @return the buffer the data is collected in. Only the first {@link #size()} bytes are valid, and the buffer is replaced when it grows. */
+        public byte[] bytes(){
+            return data;
+        }
+
+        /** @return the amount of bytes received so far. */
+        public int size(){
+            return size;
+        }
+
         public boolean isDone(){
-            return stream.size() >= total;
+            return size >= total;
         }
     }
 }
@@ -150,6 +150,8 @@ public class Block extends UnlockableContent implements Senseable{
     public boolean autoResetEnabled = true;
     /** if true, the block stops updating when disabled */
     public boolean noUpdateDisabled = false;
+    /** if true, buildings of this block may fall asleep when idle. Sleeping buildings do not update. */
+    public boolean sleepWhenIdle = false;
     /** if true, this block updates when it's a payload in a unit. */
     public boolean updateInUnits = true;
     /** if true, this block updates in payloads in units regardless of the experimental game rule */
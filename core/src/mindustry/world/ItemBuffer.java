@@ -20,6 +20,10 @@ public class ItemBuffer{
         return index < buffer.length;
     }
 
+    public boolean isEmpty(){
+        return index == 0;
+    }
+
     public void accept(Item item, short data){
         //if(!accepts()) return;
         buffer[index++] = TimeItem.get(data, item.id, Time.time);
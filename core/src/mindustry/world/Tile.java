@@ -299,6 +299,7 @@ public class Tile implements Position, QuadTreeObject, Displayable{
     public void setFloor(Floor type){
         this.floor = type;
         this.overlay = (Floor)Blocks.air;
+        world.floorChanges ++;
 
         if(!headless && !world.isGenerating() && !isEditorTile()){
             renderer.blocks.removeFloorIndex(this);
@@ -411,6 +412,7 @@ public class Tile implements Position, QuadTreeObject, Displayable{
 
     public void setOverlay(Block block){
         this.overlay = (Floor)block;
+        world.floorChanges ++;
 
         recache();
         if(!world.isGenerating() && build != null){
@@ -421,6 +423,7 @@ public class Tile implements Position, QuadTreeObject, Displayable{
     /** Sets the overlay without a recache. */
     public void setOverlayQuiet(Block block){
         this.overlay = (Floor)block;
+        world.floorChanges ++;
     }
 
     public void clearOverlay(){
@@ -580,6 +583,7 @@ public class Tile implements Position, QuadTreeObject, Displayable{
 
         if(build != null){
             //only call removed() for the center block - this only gets called once.
+            build.clearSleep();
             build.onRemoved();
             build.removeFromProximity();
 
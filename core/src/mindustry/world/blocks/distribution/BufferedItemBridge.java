@@ -40,6 +40,11 @@ public class BufferedItemBridge extends ItemBridge{
             dump();
         }
 
+        @Override
+        public boolean transportIdle(){
+            return super.transportIdle() && buffer.isEmpty();
+        }
+
         @Override
         public void write(Writes write){
             super.write(write);
@@ -25,6 +25,8 @@ import static mindustry.Vars.*;
 public class Conveyor extends Block implements Autotiler{
     private static final float itemSpace = 0.4f;
     private static final int capacity = 3;
+    /** Incremented every time any conveyor changes its neighbors. Invalidates cached line ends. */
+    private static int lineVersion;
 
     public @Load(value = "@-#1-#2", lengths = {7, 4}) TextureRegion[][] regions;
 
@@ -138,6 +140,10 @@ public class Conveyor extends Block implements Autotiler{
 
         public float clogHeat = 0f;
 
+        /** Cached conveyor at the end of the straight line this conveyor is part of. */
+        protected @Nullable ConveyorBuild lineEnd;
+        protected int lineEndVersion = -1;
+
         @Override
         public void draw(){
             int frame = enabled && clogHeat <= 0.5f ? (int)(((Time.time * speed * 8f * timeScale * efficiency)) % 4) : 0;
@@ -219,6 +225,7 @@ public class Conveyor extends Block implements Autotiler{
             next = front();
             nextc = next instanceof ConveyorBuild && next.team == team ? (ConveyorBuild)next : null;
             aligned = nextc != null && rotation == next.rotation;
+            lineVersion ++;
         }
 
         @Override
@@ -250,18 +257,63 @@ public class Conveyor extends Block implements Autotiler{
 
         @Override
         public void updateTile(){
+            //conveyors in the middle of a straight line are moved by the conveyor at its end
+            if(aligned){
+                //boosted conveyors stay awake so that their time scale can wear off
+                if(Mathf.equal(timeScale, 1f)){
+                    sleep();
+                }else{
+                    noSleep();
+                }
+                return;
+            }
+
+            //move the whole line at once, starting at the front so that items can follow each other in the same frame
+            int total = 0;
+            for(ConveyorBuild c = this; c != null; c = c.prevc()){
+                total += c.moveItems();
+            }
+
+            //skip updates if possible
+            if(total == 0 && Mathf.equal(timeScale, 1f)){
+                sleep();
+            }else{
+                noSleep();
+            }
+        }
+
+        /** @return the conveyor behind this one in the same straight line, or null if this is the start of the line. */
+        public @Nullable ConveyorBuild prevc(){
+            return back() instanceof ConveyorBuild prev && prev.aligned && prev.nextc == this ? prev : null;
+        }
+
+        /** @return the conveyor at the end of the straight line this conveyor is part of, which updates the entire line. */
+        public ConveyorBuild lineEnd(){
+            if(lineEndVersion != lineVersion || lineEnd == null){
+                ConveyorBuild end = this;
+                while(end.aligned && end.nextc != null){
+                    end = end.nextc;
+                }
+                lineEnd = end;
+                lineEndVersion = lineVersion;
+            }
+            return lineEnd;
+        }
+
+        /** Moves the items on this conveyor forward, passing them on to the next block if possible. Called by the end of the line.
+         * @return the amount of items left on this conveyor. */
+        public int moveItems(){
             minitem = 1f;
             mid = 0;
 
-            //skip updates if possible
-            if(len == 0 && Mathf.equal(timeScale, 1f)){
+            if(len == 0){
                 clogHeat = 0f;
-                sleep();
-                return;
+                return 0;
             }
 
             float nextMax = aligned ? 1f - Math.max(itemSpace - nextc.minitem, 0) : 1f;
-            float moved = speed * edelta();
+            //conveyors in the middle of a line may be asleep, in which case their efficiency is outdated
+            float moved = enabled && allowUpdate() ? speed * edelta() : 0f;
 
             for(int i = len - 1; i >= 0; i--){
                 float nextpos = (i == len - 1 ? 100f : ys[i + 1]) - itemSpace;
@@ -292,11 +344,27 @@ public class Conveyor extends Block implements Autotiler{
                 clogHeat = 0f;
             }
 
-            noSleep();
+            return len;
         }
 
         public boolean pass(Item item){
-            if(item != null && next != null && next.team == team && next.acceptItem(this, item)){
+            if(item == null) return false;
+
+            //items are moved directly along the line, as the next conveyor always accepts from behind
+            if(aligned){
+                if(nextc.len >= capacity || nextc.minitem < itemSpace) return false;
+
+                nextc.add(0);
+                nextc.xs[0] = 0;
+                nextc.ys[0] = 0;
+                nextc.ids[0] = item;
+                nextc.items.add(item, 1);
+                //the inserted item now blocks the back of the next conveyor
+                nextc.minitem = 0f;
+                return true;
+            }
+
+            if(next != null && next.team == team && next.acceptItem(this, item)){
                 next.handleItem(this, item);
                 return true;
             }
@@ -344,7 +412,7 @@ public class Conveyor extends Block implements Autotiler{
                 items.add(item, 1);
             }
 
-            noSleep();
+            lineEnd().noSleep();
         }
 
         @Override
@@ -365,7 +433,7 @@ public class Conveyor extends Block implements Autotiler{
             int ang = ((facing.relativeTo(tile.x, tile.y) - r));
             float x = (ang == -1 || ang == 3) ? 1 : (ang == 1 || ang == -3) ? -1 : 0;
 
-            noSleep();
+            lineEnd().noSleep();
             items.add(item, 1);
 
             if(Math.abs(facing.relativeTo(tile.x, tile.y) - r) == 0){ //idx = 0
@@ -427,7 +495,7 @@ public class Conveyor extends Block implements Autotiler{
             }
 
             //this updates some state
-            updateTile();
+            moveItems();
         }
 
         @Override
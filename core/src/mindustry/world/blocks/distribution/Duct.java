@@ -43,6 +43,7 @@ public class Duct extends Block implements Autotiler{
         unloadable = false;
         itemCapacity = 1;
         noUpdateDisabled = true;
+        sleepWhenIdle = true;
         underBullets = true;
         rotate = true;
         noSideBlend = true;
@@ -180,6 +181,8 @@ public class Duct extends Block implements Autotiler{
             if(current == null && items.total() > 0){
                 current = items.first();
             }
+
+            sleepIdle(current == null);
         }
 
         @Override
@@ -30,6 +30,7 @@ public class DuctRouter extends Block{
         unloadable = false;
         itemCapacity = 1;
         noUpdateDisabled = true;
+        sleepWhenIdle = true;
         configurable = true;
         saveConfig = true;
         rotate = true;
@@ -110,6 +111,8 @@ public class DuctRouter extends Block{
             if(current == null && items.total() > 0){
                 current = items.first();
             }
+
+            sleepIdle(current == null);
         }
 
         @Override
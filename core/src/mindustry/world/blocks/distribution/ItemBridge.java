@@ -53,6 +53,7 @@ public class ItemBridge extends Block{
         unloadable = false;
         group = BlockGroup.transportation;
         noUpdateDisabled = true;
+        sleepWhenIdle = true;
         allowDiagonal = false;
         copyConfig = false;
         //disabled as to not be annoying
@@ -330,6 +331,13 @@ public class ItemBridge extends Block{
                 warmup = Mathf.approachDelta(warmup, efficiency, 1f / 30f);
                 updateTransport(other.build);
             }
+
+            sleepIdle(transportIdle());
+        }
+
+        /** @return whether there is nothing left to transport, and the animation has stopped. */
+        public boolean transportIdle(){
+            return items != null && items.empty() && timeSpeed <= 0f;
         }
 
         public void doDump(){
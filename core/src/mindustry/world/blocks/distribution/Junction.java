@@ -22,6 +22,7 @@ public class Junction extends Block{
         unloadable = false;
         floating = true;
         noUpdateDisabled = true;
+        sleepWhenIdle = true;
     }
 
     @Override
@@ -39,6 +40,7 @@ public class Junction extends Block{
 
         @Override
         public void updateTile(){
+            boolean empty = true;
 
             for(int i = 0; i < 4; i++){
                 if(buffer.indexes[i] > 0){
@@ -61,13 +63,18 @@ public class Junction extends Block{
                         buffer.indexes[i] --;
                     }
                 }
+
+                if(buffer.indexes[i] > 0) empty = false;
             }
+
+            sleepIdle(empty);
         }
 
         @Override
         public void handleItem(Building source, Item item){
             int relative = source.relativeTo(tile);
             buffer.accept(relative, item);
+            noSleep();
         }
 
         @Override
@@ -28,6 +28,7 @@ public class OverflowDuct extends Block{
         unloadable = false;
         itemCapacity = 1;
         noUpdateDisabled = true;
+        sleepWhenIdle = true;
         rotate = true;
         underBullets = true;
         priority = TargetPriority.transport;
@@ -90,6 +91,8 @@ public class OverflowDuct extends Block{
             if(current == null && items.total() > 0){
                 current = items.first();
             }
+
+            sleepIdle(current == null);
         }
 
         @Nullable
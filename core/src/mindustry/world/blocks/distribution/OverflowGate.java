@@ -8,6 +8,8 @@ import mindustry.type.*;
 import mindustry.world.*;
 import mindustry.world.meta.*;
 
+import static mindustry.Vars.*;
+
 public class OverflowGate extends Block{
     public float speed = 1f;
     public boolean invert = false;
@@ -31,23 +33,49 @@ public class OverflowGate extends Block{
     }
 
     public class OverflowGateBuild extends Building{
+        /** Target chosen by the last successful acceptItem call, reused by the handleItem call that follows it. */
+        protected @Nullable Building routeSource, routeTarget;
+        protected @Nullable Item routeItem;
+        protected long routeUpdate = -1;
+        /** Direction whose alternation bit is flipped when the cached target is used, or -1. */
+        protected int routeFlip = -1, lastFlip = -1;
 
         @Override
         public boolean acceptItem(Building source, Item item){
             Building to = getTileTarget(item, source, false);
 
-            return to != null && to.acceptItem(this, item) && to.team == team;
+            if(to != null && to.acceptItem(this, item) && to.team == team){
+                routeSource = source;
+                routeItem = item;
+                routeTarget = to;
+                routeFlip = lastFlip;
+                routeUpdate = state.updateId;
+                return true;
+            }
+            return false;
         }
 
         @Override
         public void handleItem(Building source, Item item){
-            Building target = getTileTarget(item, source, true);
+            Building target;
+
+            //nothing can have changed since the item was accepted in this update, so skip routing it again
+            if(routeUpdate == state.updateId && routeSource == source && routeItem == item){
+                target = routeTarget;
+                if(routeFlip != -1) rotation ^= (1 << routeFlip);
+            }else{
+                target = getTileTarget(item, source, true);
+            }
+
+            routeSource = routeTarget = null;
+            routeItem = null;
 
             if(target != null) target.handleItem(this, item);
         }
 
         public @Nullable Building getTileTarget(Item item, Building src, boolean flip){
             int from = relativeToEdge(src.tile);
+            lastFlip = -1;
             if(from == -1) return null;
             Building to = nearby((from + 2) % 4);
             boolean
@@ -72,6 +100,7 @@ public class OverflowGate extends Block{
                 }else{
                     to = (rotation & (1 << from)) == 0 ? a : b;
                     if(flip) rotation ^= (1 << from);
+                    lastFlip = from;
                 }
             }
 
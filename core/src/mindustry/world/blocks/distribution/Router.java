@@ -22,6 +22,7 @@ public class Router extends Block{
         group = BlockGroup.transportation;
         unloadable = false;
         noUpdateDisabled = true;
+        sleepWhenIdle = true;
     }
 
     public class RouterBuild extends Building implements ControlBlock{
@@ -55,6 +56,8 @@ public class Router extends Block{
                 lastItem = items.first();
             }
 
+            sleepIdle(lastItem == null);
+
             if(lastItem != null){
                 time += 1f / speed * delta();
                 Building target = getTileTarget(lastItem, lastInput, false);
@@ -84,6 +87,7 @@ public class Router extends Block{
             lastItem = item;
             time = 0f;
             lastInput = source.tile();
+            noSleep();
         }
 
         @Override
@@ -60,6 +60,13 @@ public class Sorter extends Block{
     public class SorterBuild extends Building{
         public @Nullable Item sortItem;
 
+        /** Target chosen by the last successful acceptItem call, reused by the handleItem call that follows it. */
+        protected @Nullable Building routeSource, routeTarget;
+        protected @Nullable Item routeItem;
+        protected long routeUpdate = -1;
+        /** Direction whose alternation bit is flipped when the cached target is used, or -1. */
+        protected int routeFlip = -1, lastFlip = -1;
+
         @Override
         public void configured(Unit player, Object value){
             super.configured(player, value);
@@ -87,12 +94,33 @@ public class Sorter extends Block{
         public boolean acceptItem(Building source, Item item){
             Building to = getTileTarget(item, source, false);
 
-            return to != null && to.acceptItem(this, item) && to.team == team;
+            if(to != null && to.acceptItem(this, item) && to.team == team){
+                routeSource = source;
+                routeItem = item;
+                routeTarget = to;
+                routeFlip = lastFlip;
+                routeUpdate = state.updateId;
+                return true;
+            }
+            return false;
         }
 
         @Override
         public void handleItem(Building source, Item item){
-            getTileTarget(item, source, true).handleItem(this, item);
+            Building to;
+
+            //nothing can have changed since the item was accepted in this update, so skip routing it again
+            if(routeUpdate == state.updateId && routeSource == source && routeItem == item){
+                to = routeTarget;
+                if(routeFlip != -1) rotation ^= (1 << routeFlip);
+            }else{
+                to = getTileTarget(item, source, true);
+            }
+
+            routeSource = routeTarget = null;
+            routeItem = null;
+
+            to.handleItem(this, item);
         }
 
         public boolean isSame(Building other){
@@ -101,6 +129,7 @@ public class Sorter extends Block{
 
         public Building getTileTarget(Item item, Building source, boolean flip){
             int dir = source.relativeTo(tile.x, tile.y);
+            lastFlip = -1;
             if(dir == -1) return null;
             Building to;
 
@@ -127,6 +156,7 @@ public class Sorter extends Block{
                 }else{
                     to = (rotation & (1 << dir)) == 0 ? a : b;
                     if(flip) rotation ^= (1 << dir);
+                    lastFlip = dir;
                 }
             }
 
@@ -20,6 +20,8 @@ public class HeatProducer extends GenericCrafter{
         rotate = true;
         canOverdrive = false;
         drawArrow = true;
+        //adjacent buildings read the heat output, which needs to keep cooling down
+        sleepWhenIdle = false;
     }
 
     @Override
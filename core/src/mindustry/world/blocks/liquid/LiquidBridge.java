@@ -12,6 +12,7 @@ public class LiquidBridge extends ItemBridge{
         hasLiquids = true;
         outputsLiquid = true;
         canOverdrive = false;
+        sleepWhenIdle = false;
         group = BlockGroup.liquids;
         envEnabled = Env.any;
     }
@@ -93,6 +93,7 @@ public class LogicBlock extends Block{
                 //disable when unlinking
                 if(!link.active && lbuild.block.autoResetEnabled && lbuild.lastDisabler == entity){
                     lbuild.enabled = true;
+                    lbuild.noSleep();
                 }
             }else{
                 entity.links.remove(l -> world.build(l.x, l.y) == lbuild);
@@ -434,6 +435,7 @@ public class LogicBlock extends Block{
             for(var link : executor.links){
                 if(!link.enabled && link.lastDisabler == this){
                     link.enabled = true;
+                    link.noSleep();
                 }
             }
         }
@@ -24,7 +24,10 @@ public class SwitchBlock extends Block{
         group = BlockGroup.logic;
         envEnabled = Env.any;
 
-        config(Boolean.class, (SwitchBuild entity, Boolean b) -> entity.enabled = b);
+        config(Boolean.class, (SwitchBuild entity, Boolean b) -> {
+            entity.enabled = b;
+            if(b) entity.noSleep();
+        });
     }
 
     public boolean accessible(){
@@ -4,6 +4,7 @@ import arc.math.*;
 import arc.struct.*;
 import arc.util.*;
 import mindustry.gen.*;
+import mindustry.world.meta.*;
 
 public class PowerGraph{
     private static final Queue<Building> queue = new Queue<>();
@@ -192,6 +193,7 @@ public class PowerGraph{
             var consumer = items[i];
             //TODO how would it even be null
             var cons = consumer.block.consPower;
+            boolean unpowered = Mathf.zero(consumer.power.status);
             if(cons.buffered){
                 if(!Mathf.zero(cons.capacity)){
                     // Add an equal percentage of power to all buffers, based on the global power coverage in this graph
@@ -210,6 +212,10 @@ public class PowerGraph{
                     }
                 }
             }
+
+            if(unpowered && !Mathf.zero(consumer.power.status)){
+                consumer.noSleep();
+            }
         }
     }
 
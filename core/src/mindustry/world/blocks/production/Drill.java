@@ -84,6 +84,7 @@ public class Drill extends Block{
         //drills work in space I guess
         envEnabled |= Env.space;
         flags = EnumSet.of(BlockFlag.drill);
+        sleepWhenIdle = true;
     }
 
     @Override
@@ -287,6 +288,9 @@ public class Drill extends Block{
 
         @Override
         public void updateTile(){
+            //nothing to output, and either nothing to mine or starved and wound down
+            sleepIdle(items.total() == 0 && (dominantItem == null || (efficiency <= 0f && warmup <= 0f)));
+
             if(timer(timerDump, dumpTime)){
                 dump(dominantItem != null && items.has(dominantItem) ? dominantItem : null);
             }
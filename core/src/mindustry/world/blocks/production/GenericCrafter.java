@@ -56,6 +56,7 @@ public class GenericCrafter extends Block{
         ambientSoundVolume = 0.03f;
         flags = EnumSet.of(BlockFlag.factory);
         drawArrow = false;
+        sleepWhenIdle = true;
     }
 
     @Override
@@ -247,6 +248,24 @@ public class GenericCrafter extends Block{
             }
 
             dumpOutputs();
+
+            //starved and wound down, with nothing left to output
+            sleepIdle(efficiency <= 0f && warmup <= 0f && !hasOutputs());
+        }
+
+        /** @return whether this crafter holds any of its output items or liquids. */
+        public boolean hasOutputs(){
+            if(outputItems != null){
+                for(var output : outputItems){
+                    if(items.has(output.item)) return true;
+                }
+            }
+            if(outputLiquids != null){
+                for(var output : outputLiquids){
+                    if(liquids.get(output.liquid) > 0.001f) return true;
+                }
+            }
+            return false;
         }
 
         @Override
@@ -18,6 +18,8 @@ public class HeatCrafter extends GenericCrafter{
 
     public HeatCrafter(String name){
         super(name);
+        //heat comes from adjacent buildings without any event
+        sleepWhenIdle = false;
     }
 
     @Override
@@ -24,6 +24,8 @@ public class ItemModule extends BlockModule{
     protected int[] items = new int[content.items().size];
     protected int total;
     protected int takeRotation;
+    /** Bit mask of item IDs with a non-zero amount. Only used when there are at most 64 items; see {@link #masked()}. */
+    protected long nonEmpty;
 
     private @Nullable WindowedMean[] flow;
 
@@ -36,9 +38,38 @@ public class ItemModule extends BlockModule{
     public void set(ItemModule other){
         total = other.total;
         takeRotation = other.takeRotation;
+        nonEmpty = other.nonEmpty;
         System.arraycopy(other.items, 0, items, 0, items.length);
     }
 
+    /** @return whether the non-empty item mask can be used for iteration. */
+    protected boolean masked(){
+        return items.length <= 64;
+    }
+
+    /** @return the next item ID starting at this one (inclusive) with a non-zero amount, or -1. Only valid when masked. */
+    protected int nextNonEmpty(int from){
+        if(from >= 64) return -1;
+        long mask = nonEmpty & (-1L << from);
+        return mask == 0 ? -1 : Long.numberOfTrailingZeros(mask);
+    }
+
+    /** @return the next item ID starting at this one (inclusive) with a positive amount, or -1. Only valid when masked. */
+    protected int nextPositive(int from){
+        for(int i = nextNonEmpty(from); i != -1; i = nextNonEmpty(i + 1)){
+            if(items[i] > 0) return i;
+        }
+        return -1;
+    }
+
+    private void updateMask(int id){
+        if(items[id] != 0){
+            nonEmpty |= 1L << id;
+        }else{
+            nonEmpty &= ~(1L << id);
+        }
+    }
+
     public void updateFlow(){
         //update the flow at N fps at most
         if(flowTimer.get(1, pollScl)){
@@ -98,6 +129,13 @@ public class ItemModule extends BlockModule{
     }
 
     public void each(ItemConsumer cons){
+        if(masked()){
+            for(int i = nextNonEmpty(0); i != -1; i = nextNonEmpty(i + 1)){
+                cons.accept(content.item(i), items[i]);
+            }
+            return;
+        }
+
         for(int i = 0; i < items.length; i++){
             if(items[i] != 0){
                 cons.accept(content.item(i), items[i]);
@@ -107,6 +145,13 @@ public class ItemModule extends BlockModule{
 
     public float sum(ItemCalculator calc){
         float sum = 0f;
+        if(masked()){
+            for(int i = nextPositive(0); i != -1; i = nextPositive(i + 1)){
+                sum += calc.get(content.item(i), items[i]);
+            }
+            return sum;
+        }
+
         for(int i = 0; i < items.length; i++){
             if(items[i] > 0){
                 sum += calc.get(content.item(i), items[i]);
@@ -181,6 +226,11 @@ public class ItemModule extends BlockModule{
 
     @Nullable
     public Item first(){
+        if(masked()){
+            int index = nextPositive(0);
+            return index == -1 ? null : content.item(index);
+        }
+
         for(int i = 0; i < items.length; i++){
             if(items[i] > 0){
                 return content.item(i);
@@ -191,6 +241,17 @@ public class ItemModule extends BlockModule{
 
     @Nullable
     public Item take(){
+        if(masked()){
+            int index = takeIndexMasked(takeRotation);
+            if(index == -1) return null;
+
+            items[index] --;
+            total --;
+            updateMask(index);
+            takeRotation = index + 1;
+            return content.item(index);
+        }
+
         for(int i = 0; i < items.length; i++){
             int index = (i + takeRotation);
             if(index >= items.length) index -= items.length;
@@ -207,6 +268,11 @@ public class ItemModule extends BlockModule{
     /** Begins a speculative take operation. This returns the item that would be returned by #take(), but does not change state. */
     @Nullable
     public Item takeIndex(int takeRotation){
+        if(masked()){
+            int index = takeIndexMasked(takeRotation);
+            return index == -1 ? null : content.item(index);
+        }
+
         for(int i = 0; i < items.length; i++){
             int index = (i + takeRotation);
             if(index >= items.length) index -= items.length;
@@ -217,7 +283,27 @@ public class ItemModule extends BlockModule{
         return null;
     }
 
+    /** @return the index of the first positive item at or after the rotation, wrapping around, or -1. Only valid when masked. */
+    protected int takeIndexMasked(int takeRotation){
+        int start = takeRotation >= items.length ? takeRotation - items.length : takeRotation;
+        int index = nextPositive(start);
+        if(index == -1 && start > 0){
+            index = nextPositive(0);
+            if(index >= start) index = -1;
+        }
+        return index;
+    }
+
     public int nextIndex(int takeRotation){
+        if(masked()){
+            int start = takeRotation >= items.length ? takeRotation - items.length : takeRotation;
+            int index = nextPositive(start + 1);
+            if(index == -1){
+                index = nextPositive(0);
+            }
+            return index == -1 || index == start ? takeRotation : index;
+        }
+
         for(int i = 1; i < items.length; i++){
             int index = (i + takeRotation);
             if(index >= items.length) index -= items.length;
@@ -239,6 +325,7 @@ public class ItemModule extends BlockModule{
     public void set(Item item, int amount){
         total += (amount - items[item.id]);
         items[item.id] = amount;
+        updateMask(item.id);
     }
 
     public void add(Iterable<ItemStack> stacks){
@@ -264,6 +351,7 @@ public class ItemModule extends BlockModule{
     private void add(int item, int amount){
         items[item] += amount;
         total += amount;
+        updateMask(item);
         if(flow != null){
             cacheSums[item] += amount;
         }
@@ -286,6 +374,7 @@ public class ItemModule extends BlockModule{
 
         items[item.id] -= amount;
         total -= amount;
+        updateMask(item.id);
     }
 
     public void remove(ItemStack[] stacks){
@@ -307,10 +396,26 @@ public class ItemModule extends BlockModule{
     public void clear(){
         Arrays.fill(items, 0);
         total = 0;
+        nonEmpty = 0;
     }
 
     @Override
     public void write(Writes write){
+        if(masked()){
+            int amount = 0;
+            for(int i = nextPositive(0); i != -1; i = nextPositive(i + 1)){
+                amount ++;
+            }
+
+            write.s(amount);
+
+            for(int i = nextPositive(0); i != -1; i = nextPositive(i + 1)){
+                write.s(i); //item ID
+                write.i(items[i]); //item amount
+            }
+            return;
+        }
+
         int amount = 0;
         for(int item : items){
             if(item > 0) amount++;
@@ -332,6 +437,7 @@ public class ItemModule extends BlockModule{
         Arrays.fill(items, 0);
         int count = legacy ? read.ub() : read.s();
         total = 0;
+        nonEmpty = 0;
 
         for(int j = 0; j < count; j++){
             int itemid = legacy ? read.ub() : read.s();
@@ -340,6 +446,7 @@ public class ItemModule extends BlockModule{
             if(item != null){
                 items[item.id] = itemamount;
                 total += itemamount;
+                if(masked()) updateMask(item.id);
             }
         }
     }
@@ -22,6 +22,8 @@ public class LiquidModule extends BlockModule{
 
     private float[] liquids = new float[content.liquids().size];
     private Liquid current = content.liquid(0);
+    /** Bit mask of liquid IDs that may hold a non-zero amount. Only used when there are at most 64 liquids. */
+    private long touched;
 
     private @Nullable WindowedMean[] flow;
 
@@ -86,6 +88,8 @@ public class LiquidModule extends BlockModule{
         Arrays.fill(liquids, 0f);
         liquids[liquid.id] = amount;
         current = liquid;
+        touched = 0;
+        touch(liquid.id);
     }
 
     public void set(Liquid liquid, float amount){
@@ -93,6 +97,7 @@ public class LiquidModule extends BlockModule{
             current = liquid;
         }
         liquids[liquid.id] = amount;
+        touch(liquid.id);
     }
 
     public float currentAmount(){
@@ -105,11 +110,13 @@ public class LiquidModule extends BlockModule{
 
     public void clear(){
         Arrays.fill(liquids, 0);
+        touched = 0;
     }
 
     public void add(Liquid liquid, float amount){
         liquids[liquid.id] += amount;
         current = liquid;
+        touch(liquid.id);
 
         if(flow != null){
             cacheSums[liquid.id] += Math.max(amount, 0);
@@ -128,6 +135,16 @@ public class LiquidModule extends BlockModule{
     }
 
     public void each(LiquidConsumer cons){
+        if(masked()){
+            for(long mask = touched; mask != 0; mask &= mask - 1){
+                int i = Long.numberOfTrailingZeros(mask);
+                if(liquids[i] > 0){
+                    cons.accept(content.liquid(i), liquids[i]);
+                }
+            }
+            return;
+        }
+
         for(int i = 0; i < liquids.length; i++){
             if(liquids[i] > 0){
                 cons.accept(content.liquid(i), liquids[i]);
@@ -137,6 +154,16 @@ public class LiquidModule extends BlockModule{
 
     public float sum(LiquidCalculator calc){
         float sum = 0f;
+        if(masked()){
+            for(long mask = touched; mask != 0; mask &= mask - 1){
+                int i = Long.numberOfTrailingZeros(mask);
+                if(liquids[i] > 0){
+                    sum += calc.get(content.liquid(i), liquids[i]);
+                }
+            }
+            return sum;
+        }
+
         for(int i = 0; i < liquids.length; i++){
             if(liquids[i] > 0){
                 sum += calc.get(content.liquid(i), liquids[i]);
@@ -147,6 +174,24 @@ public class LiquidModule extends BlockModule{
 
     @Override
     public void write(Writes write){
+        if(masked()){
+            int amount = 0;
+            for(long mask = touched; mask != 0; mask &= mask - 1){
+                if(liquids[Long.numberOfTrailingZeros(mask)] > 0) amount++;
+            }
+
+            write.s(amount); //amount of liquids
+
+            for(long mask = touched; mask != 0; mask &= mask - 1){
+                int i = Long.numberOfTrailingZeros(mask);
+                if(liquids[i] > 0){
+                    write.s(i); //liquid ID
+                    write.f(liquids[i]); //liquid amount
+                }
+            }
+            return;
+        }
+
         int amount = 0;
         for(float liquid : liquids){
             if(liquid > 0) amount++;
@@ -165,6 +210,7 @@ public class LiquidModule extends BlockModule{
     @Override
     public void read(Reads read, boolean legacy){
         Arrays.fill(liquids, 0);
+        touched = 0;
         int count = legacy ? read.ub() : read.s();
 
         for(int j = 0; j < count; j++){
@@ -173,6 +219,7 @@ public class LiquidModule extends BlockModule{
             if(liq != null){
                 int liquidid = liq.id;
                 liquids[liquidid] = amount;
+                touch(liquidid);
                 if(amount > liquids[current.id]){
                     current = liq;
                 }
@@ -180,6 +227,14 @@ public class LiquidModule extends BlockModule{
         }
     }
 
+    private boolean masked(){
+        return liquids.length <= 64;
+    }
+
+    private void touch(int id){
+        if(id < 64) touched |= 1L << id;
+    }
+
     public interface LiquidConsumer{
         void accept(Liquid liquid, float amount);
     }
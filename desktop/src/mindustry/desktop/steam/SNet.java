@@ -435,6 +435,8 @@ public class SNet implements SteamNetworkingCallback, SteamMatchmakingCallback,
                 writeBuffer.flip();
 
                 snet.sendP2PPacket(sid, writeBuffer, reliable || length >= 1000 ? object instanceof StreamChunk ? P2PSend.ReliableWithBuffering : P2PSend.Reliable : P2PSend.UnreliableNoDelay, 0);
+                packetsSent ++;
+                bytesSent += length;
             }catch(Exception e){
                 Log.err(e);
                 Log.info("Error sending packet. Disconnecting invalid client!");
@@ -24,6 +24,7 @@ import mindustry.net.Administration.*;
 import mindustry.net.Packets.*;
 import mindustry.net.*;
 import mindustry.type.*;
+import mindustry.world.*;
 
 import java.io.*;
 import java.net.*;
@@ -66,6 +67,7 @@ public class ServerControl implements ApplicationListener{
     public Gamemode lastMode;
 
     private Task lastTask;
+    private long lastNetStatsDump = Time.millis();
     private Thread socketThread;
     private ServerSocket serverSocket;
     private PrintWriter socketOutput;
@@ -270,6 +272,16 @@ public class ServerControl implements ApplicationListener{
             Core.settings.forceSave();
         }, saveInterval, saveInterval);
 
+        //dump network statistics periodically, if enabled
+        Timer.schedule(() -> {
+            int interval = Config.netStatsInterval.num();
+            if(interval > 0 && Time.timeSinceMillis(lastNetStatsDump) >= interval * 1000L){
+                lastNetStatsDump = Time.millis();
+                logFolder.child("netstats.txt").writeString("[" + dateTime.format(LocalDateTime.now()) + "] " + NetStats.report() + NetStats.connectionReport() + "\n", true);
+                NetStats.reset();
+            }
+        }, 1f, 1f);
+
         if(!mods.orderedMods().isEmpty()){
             info("@ mods loaded.", mods.orderedMods().size);
         }
@@ -1045,6 +1057,44 @@ public class ServerControl implements ApplicationListener{
             }
         });
 
+        handler.register("sleeping", "Display the amount of sleeping buildings by block.", arg -> {
+            if(state.isMenu()){
+                err("Not hosting. Host a game first.");
+                return;
+            }
+
+            ObjectIntMap<Block> sleeping = new ObjectIntMap<>(), total = new ObjectIntMap<>();
+            int sleepingCount = 0, totalCount = 0;
+            for(var data : state.teams.present){
+                for(var build : data.buildings){
+                    if(!build.block.update) continue;
+
+                    total.increment(build.block);
+                    totalCount ++;
+                    if(build.isSleeping()){
+                        sleeping.increment(build.block);
+                        sleepingCount ++;
+                    }
+                }
+            }
+
+            info("Sleeping buildings: @ / @", sleepingCount, totalCount);
+            for(var entry : sleeping.entries().toArray().sort(e -> -e.value)){
+                info("  &lm@&fr: @ / @", entry.key.name, entry.value, total.get(entry.key));
+            }
+        });
+
+        handler.register("netstats", "[reset]", "Display network traffic by packet type and connection.", arg -> {
+            if(arg.length > 0 && arg[0].equalsIgnoreCase("reset")){
+                NetStats.reset();
+                info("Network statistics reset.");
+                return;
+            }
+
+            info(NetStats.report());
+            info(NetStats.connectionReport());
+        });
+
         handler.register("gc", "Trigger a garbage collection. Testing only.", arg -> {
             int pre = (int)(Core.app.getJavaHeap() / 1024 / 1024);
             System.gc();
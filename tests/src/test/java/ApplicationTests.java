@@ -2,6 +2,7 @@ import arc.*;
 import arc.assets.AssetManager;
 import arc.backend.headless.*;
 import arc.files.*;
+import arc.math.*;
 import arc.math.geom.*;
 import arc.struct.*;
 import arc.util.*;
@@ -28,11 +29,13 @@ import mindustry.net.*;
 import mindustry.net.Packets.*;
 import mindustry.type.*;
 import mindustry.world.*;
+import mindustry.world.blocks.distribution.Conveyor;
 import mindustry.world.blocks.liquid.Conduit;
 import mindustry.world.blocks.payloads.*;
 import mindustry.world.blocks.storage.*;
 import mindustry.world.blocks.defense.turrets.*;  // Added by WS
 import mindustry.world.blocks.environment.Floor; // Added by WS
+import mindustry.world.meta.BlockFlag;
 import mindustry.world.blocks.storage.CoreBlock.CoreBuild;
 import org.json.*;
 import org.junit.jupiter.api.*;
@@ -1245,6 +1248,90 @@ public class ApplicationTests{
         assertTrue(state.teams.playerCores().size > 0);
     }
 
+    @Test
+    void saveLoadStaticFog(){
+        boolean[] expected = setupStaticFog();
+
+        SaveIO.save(saveDirectory.child("0.msav"));
+        resetWorld();
+        SaveIO.load(saveDirectory.child("0.msav"));
+
+        assertStaticFog(expected);
+    }
+
+    @Test
+    void loadLegacyStaticFog() throws IOException{
+        boolean[] expected = setupStaticFog();
+        int width = world.width(), height = world.height();
+        SaveVersion writer = SaveIO.getSaveWriter();
+
+        //build a custom chunk section with only the old chunk, in the old run format; it is read by the handler FogControl registers
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(1);
+        out.writeUTF("static-fog-data");
+        writer.writeChunk(out, false, stream -> {
+            stream.writeByte(1);
+            stream.writeShort(width);
+            stream.writeShort(height);
+            stream.writeByte(Team.sharded.id);
+
+            int pos = 0;
+            while(pos < expected.length){
+                boolean cur = expected[pos];
+                int run = 0;
+                while(run < 127 && pos < expected.length && expected[pos] == cur){
+                    run ++;
+                    pos ++;
+                }
+                stream.write((cur ? 0b1000_0000 : 0) | run);
+            }
+        });
+
+        resetWorld();
+        world.loadMap(testMap);
+        state.rules.fog = true;
+        state.rules.staticFog = true;
+        writer.readCustomChunks(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertStaticFog(expected);
+    }
+
+    /** Loads the test map with static fog, discovers a few areas for the player team, and returns which tiles are discovered. */
+    boolean[] setupStaticFog(){
+        world.loadMap(testMap);
+        state.rules.fog = true;
+        state.rules.staticFog = true;
+        fogControl.update();
+
+        Bits discovered = fogControl.getDiscovered(Team.sharded);
+        assertNotNull(discovered, "Player team must have static fog data");
+
+        int size = world.width() * world.height();
+        //a run longer than one byte of either format can hold, single tiles, and the very last tile
+        discovered.set(0, 300);
+        discovered.set(world.width() * 3 + 7);
+        discovered.set(world.width() * 5 + 1);
+        discovered.set(size - 1);
+
+        boolean[] expected = new boolean[size];
+        for(int i = 0; i < size; i++){
+            expected[i] = discovered.get(i);
+        }
+        return expected;
+    }
+
+    void assertStaticFog(boolean[] expected){
+        assertTrue(state.rules.fog && state.rules.staticFog, "Fog rules must persist");
+        assertEquals(expected.length, world.width() * world.height());
+
+        Bits discovered = fogControl.getDiscovered(Team.sharded);
+        assertNotNull(discovered, "Static fog must persist");
+        for(int i = 0; i < expected.length; i++){
+            assertEquals(expected[i], discovered.get(i), "Discovered state of tile " + i + " must persist");
+        }
+    }
+
     void updateBlocks(int times){
         for(Tile tile : world.tiles){
             if(tile.build != null && tile.isCenter()){
@@ -1490,6 +1577,224 @@ public class ApplicationTests{
         assertNotEquals(0, itemsa[0]);
     }
 
+    @Test
+    void conveyorLineStraight(){
+        world.loadMap(testMap);
+        state.set(State.playing);
+        state.rules.limitMapArea = false;
+
+        for(int i = 1; i <= 16; i++){
+            world.tile(i, 0).setBlock(Blocks.conveyor, Team.sharded, 0);
+        }
+
+        ConveyorRun run = new ConveyorRun("straight", world.tile(0, 0), world.tile(1, 0), world.tile(17, 0));
+        run.run(3000, 60);
+
+        assertArrayEquals(run.fed.toArray(Item.class), run.received.toArray(Item.class), "Items must leave a straight line in the order they entered it");
+        assertTrue(run.ticksPerItem() <= run.idealTicksPerItem() * 1.25f, "Straight line must move items at full speed, but took " + run.ticksPerItem() + " ticks per item");
+    }
+
+    @Test
+    void conveyorLineTurn(){
+        world.loadMap(testMap);
+        state.set(State.playing);
+        state.rules.limitMapArea = false;
+
+        for(int i = 1; i <= 8; i++){
+            world.tile(i, 0).setBlock(Blocks.conveyor, Team.sharded, 0);
+        }
+        for(int i = 0; i <= 8; i++){
+            world.tile(9, i).setBlock(Blocks.conveyor, Team.sharded, 1);
+        }
+
+        ConveyorRun run = new ConveyorRun("turn", world.tile(0, 0), world.tile(1, 0), world.tile(9, 9));
+        run.run(3000, 60);
+
+        assertArrayEquals(run.fed.toArray(Item.class), run.received.toArray(Item.class), "Items must leave a turning line in the order they entered it");
+        //items enter a turn from the side, halfway along the conveyor, so a turn can be slower than a straight line
+        assertTrue(run.ticksPerItem() <= run.idealTicksPerItem() * 2f, "Turning line moved items too slowly: " + run.ticksPerItem() + " ticks per item");
+    }
+
+    @Test
+    void conveyorLineEndRemoved(){
+        world.loadMap(testMap);
+        state.set(State.playing);
+        state.rules.limitMapArea = false;
+
+        for(int i = 1; i <= 16; i++){
+            world.tile(i, 0).setBlock(Blocks.conveyor, Team.sharded, 0);
+        }
+
+        ConveyorRun run = new ConveyorRun("end-removed", world.tile(0, 0), world.tile(1, 0), world.tile(17, 0));
+        run.run(800, 60);
+        assertTrue(run.received.size > 0, "Items must reach the end of the line before it is removed");
+
+        //the items on the removed conveyor are lost with it
+        Building end = world.tile(16, 0).build;
+        int lost = end.items.total();
+        int received = run.received.size;
+        world.tile(16, 0).setAir();
+
+        run.run(300, 60);
+        assertEquals(received, run.received.size, "Nothing may be delivered while the end of the line is missing");
+        assertFalse(end.isAdded(), "Removed conveyor must not be woken up by the rest of its old line");
+
+        world.tile(16, 0).setBlock(Blocks.conveyor, Team.sharded, 0);
+        run.run(3000, 60);
+
+        assertEquals(run.fed.size, run.received.size + lost, "Every item that was not on the removed conveyor must be delivered");
+
+        //delivered items must be the fed items in order, with only the removed conveyor's items missing
+        int fedIndex = 0;
+        for(Item item : run.received){
+            while(fedIndex < run.fed.size && run.fed.get(fedIndex) != item){
+                fedIndex ++;
+            }
+            assertTrue(fedIndex < run.fed.size, "Items must be delivered in the order they were fed");
+            fedIndex ++;
+        }
+    }
+
+    /** Feeds a repeating sequence of items into the start of a conveyor line, and records what comes out of its end. */
+    static class ConveyorRun{
+        /** Minimum distance between items on a conveyor; see Conveyor. */
+        static final float itemSpace = 0.4f;
+
+        final Seq<Item> fed = new Seq<>(), received = new Seq<>();
+        final Item[] order = {Items.copper, Items.lead, Items.coal, Items.graphite};
+        final Building feeder, first;
+        int tick, firstReceived = -1, lastReceived = -1;
+
+        ConveyorRun(String name, Tile feeder, Tile first, Tile sink){
+            //an item source with nothing configured does not output anything by itself
+            feeder.setBlock(Blocks.itemSource, Team.sharded);
+            sink.setBlock(new Block("conveyor-test-sink-" + name){{
+                hasItems = true;
+                destructible = true;
+                buildType = () -> new Building(){
+                    @Override
+                    public void handleItem(Building source, Item item){
+                        ConveyorRun run = ConveyorRun.this;
+                        run.received.add(item);
+                        if(run.firstReceived < 0) run.firstReceived = run.tick;
+                        run.lastReceived = run.tick;
+                    }
+
+                    @Override
+                    public boolean acceptItem(Building source, Item item){
+                        return true;
+                    }
+                };
+            }}, Team.sharded);
+
+            this.feeder = feeder.build;
+            this.first = first.build;
+        }
+
+        void run(int ticks, int maxItems){
+            for(int i = 0; i < ticks; i++){
+                Item next = order[fed.size % order.length];
+                if(fed.size < maxItems && first.acceptItem(feeder, next)){
+                    first.handleItem(feeder, next);
+                    fed.add(next);
+                }
+
+                Time.update();
+                Groups.build.update();
+                tick ++;
+            }
+        }
+
+        float ticksPerItem(){
+            return (lastReceived - firstReceived) / (float)Math.max(received.size - 1, 1);
+        }
+
+        float idealTicksPerItem(){
+            return itemSpace / ((Conveyor)Blocks.conveyor).speed;
+        }
+    }
+
+    @Test
+    void indexerFlagQueries(){
+        Seq<Building> turrets = setupIndexedBuildings();
+        Rand rand = new Rand(2);
+
+        for(int i = 0; i < 200; i++){
+            float x = rand.random(-100f, world.unitWidth() + 100f), y = rand.random(-100f, world.unitHeight() + 100f), range = rand.random(10f, 1500f);
+
+            for(Team team : new Team[]{Team.sharded, Team.crux}){
+                Seq<Building> owned = turrets.select(b -> b.team == team), enemy = turrets.select(b -> b.team != team);
+
+                assertEquals(owned.count(b -> b.within(x, y, range)), indexer.countFlagged(team, BlockFlag.turret, x, y, range), "Turret count must match a linear scan");
+                assertEquals(closest(owned, x, y, Float.MAX_VALUE), indexer.findClosestFlag(x, y, team, BlockFlag.turret), "Closest turret must match a linear scan");
+                assertEquals(closest(owned, x, y, range), indexer.findClosestFlag(x, y, team, BlockFlag.turret, range, null), "Closest turret in range must match a linear scan");
+                assertEquals(closest(owned.select(b -> b.tileX() % 2 == 0), x, y, range), indexer.findClosestFlag(x, y, team, BlockFlag.turret, range, b -> b.tileX() % 2 == 0), "Predicate must filter the closest turret");
+                assertEquals(closest(enemy, x, y, Float.MAX_VALUE), indexer.findClosestEnemyFlag(x, y, team, BlockFlag.turret), "Closest enemy turret must match a linear scan");
+            }
+        }
+    }
+
+    @Test
+    void indexerDamagedQueries(){
+        Seq<Building> turrets = setupIndexedBuildings();
+        Rand rand = new Rand(3);
+
+        assertNull(indexer.findClosestDamaged(Team.sharded, 0f, 0f), "No building has been damaged yet");
+
+        for(int i = 0; i < turrets.size; i += 3){
+            turrets.get(i).damage(1f);
+        }
+
+        //a repaired building must leave the index
+        Building repaired = turrets.find(Building::damaged);
+        repaired.heal();
+        assertFalse(repaired.damaged());
+
+        for(int i = 0; i < 200; i++){
+            float x = rand.random(world.unitWidth()), y = rand.random(world.unitHeight()), range = rand.random(10f, 1500f);
+            Seq<Building> damaged = turrets.select(b -> b.team == Team.sharded && b.damaged());
+
+            assertEquals(closest(damaged, x, y, Float.MAX_VALUE), indexer.findClosestDamaged(Team.sharded, x, y), "Closest damaged building must match a linear scan");
+            assertEquals(closest(damaged, x, y, range), indexer.findClosestDamaged(Team.sharded, x, y, range, null), "Closest damaged building in range must match a linear scan");
+        }
+    }
+
+    /** Creates a map spanning several grid regions with turrets of two teams scattered over it. */
+    Seq<Building> setupIndexedBuildings(){
+        Tiles tiles = world.resize(300, 300);
+        world.beginMapLoad();
+        tiles.fill();
+        world.endMapLoad();
+        state.set(State.playing);
+
+        Seq<Building> result = new Seq<>();
+        Rand rand = new Rand(1);
+
+        for(int i = 0; i < 400; i++){
+            Tile tile = world.tile(rand.random(world.width() - 1), rand.random(world.height() - 1));
+            if(tile.block() != Blocks.air) continue;
+
+            tile.setBlock(Blocks.duo, i % 3 == 0 ? Team.crux : Team.sharded);
+            result.add(tile.build);
+        }
+
+        return result;
+    }
+
+    /** @return the building closest to this position in range, found with a linear scan. */
+    Building closest(Seq<Building> builds, float x, float y, float range){
+        Building result = null;
+        float best = range * range;
+        for(Building build : builds){
+            float dst = build.dst2(x, y);
+            if(dst < best){
+                best = dst;
+                result = build;
+            }
+        }
+        return result;
+    }
+
     @Test
     void load77Save(){
         resetWorld();